@@ -0,0 +1,105 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures the cost of a call of {@link InterceptSolver#solve(long, double, double, double, boolean)}.
+ * <p>
+ * The enemy is placed at random positions with random headings, velocities
+ * and turn rates on an 800x600 battlefield and solved from its centre with
+ * random bullet speeds. After a warm-up, the average time per linear and per
+ * circular solve is printed. Run it with the compiled robot and robocode on
+ * the class path:
+ * <pre>
+ *   java net.zerobone.zerorobo.behaviour.guns.InterceptSolverBenchmark
+ * </pre>
+ */
+public final class InterceptSolverBenchmark {
+
+    private static final double BATTLE_FIELD_WIDTH = 800;
+    private static final double BATTLE_FIELD_HEIGHT = 600;
+
+    // amount of different situations, solved in turn
+    private static final int SCENARIOS = 1024;
+
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    private InterceptSolverBenchmark() {}
+
+    public static void main(String[] args) {
+
+        Random random = new Random(42);
+
+        InterceptSolver[] solvers = new InterceptSolver[SCENARIOS];
+        double[] bulletSpeeds = new double[SCENARIOS];
+
+        for (int i = 0; i < SCENARIOS; i++) {
+
+            InterceptSolver solver = new InterceptSolver(BATTLE_FIELD_WIDTH, BATTLE_FIELD_HEIGHT);
+
+            double x = 50 + random.nextDouble() * (BATTLE_FIELD_WIDTH - 100);
+            double y = 50 + random.nextDouble() * (BATTLE_FIELD_HEIGHT - 100);
+            double heading = random.nextDouble() * 360;
+            double velocity = random.nextInt(17) - 8;
+
+            // two scans a tick apart give the solver a turn rate
+            solver.onScan(0, x, y, heading, velocity);
+            solver.onScan(1, x, y, heading + (random.nextDouble() - .5) * 20, velocity);
+
+            solvers[i] = solver;
+            bulletSpeeds[i] = 11 + random.nextDouble() * 8.7;
+
+        }
+
+        // keeps the results alive, so the solves are not optimized away
+        double sink = 0;
+
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            sink += run(solvers, bulletSpeeds, false) + run(solvers, bulletSpeeds, true);
+        }
+
+        long linearNanos = 0;
+        long circularNanos = 0;
+
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+
+            long start = System.nanoTime();
+            sink += run(solvers, bulletSpeeds, false);
+            long middle = System.nanoTime();
+            sink += run(solvers, bulletSpeeds, true);
+            long end = System.nanoTime();
+
+            linearNanos += middle - start;
+            circularNanos += end - middle;
+
+        }
+
+        double solves = (double)SCENARIOS * MEASURED_ROUNDS;
+
+        System.out.printf(Locale.ROOT, "linear   %.3f us/solve%n", linearNanos / solves / 1000);
+        System.out.printf(Locale.ROOT, "circular %.3f us/solve%n", circularNanos / solves / 1000);
+        System.out.printf(Locale.ROOT, "(checksum %.1f)%n", sink);
+
+    }
+
+    private static double run(InterceptSolver[] solvers, double[] bulletSpeeds, boolean circular) {
+
+        double sum = 0;
+
+        for (int i = 0; i < solvers.length; i++) {
+
+            InterceptSolver solver = solvers[i];
+
+            solver.solve(1, BATTLE_FIELD_WIDTH / 2, BATTLE_FIELD_HEIGHT / 2, bulletSpeeds[i], circular);
+
+            sum += solver.getInterceptX() + solver.getInterceptTicks();
+
+        }
+
+        return sum;
+
+    }
+
+}
\ No newline at end of file
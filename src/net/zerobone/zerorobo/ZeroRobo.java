@@ -2,6 +2,7 @@ package net.zerobone.zerorobo;
 
 import net.zerobone.zerorobo.behaviour.TileBehaviour;
 import net.zerobone.zerorobo.behaviour.tiletactics.*;
+import net.zerobone.zerorobo.utils.IntPoint;
 import net.zerobone.zerorobo.utils.SimpleRobot;
 
 import java.awt.*;
@@ -10,10 +11,12 @@ public class ZeroRobo extends SimpleRobot {
 
     public ZeroRobo() {
 
-        behaviour = new TileBehaviour(this, new RandomTactic());
+        behaviour = new TileBehaviour(this, new LeastDangerTactic());
+        // behaviour = new TileBehaviour(this, new RandomTactic());
         // behaviour = new TileBehaviour(this, new StraightRandomTactic());
         // behaviour = new TileBehaviour(this, new CircleTactic());
         // behaviour = new TileBehaviour(this, new RamTactic());
+        // behaviour = new TileBehaviour(this, new RandomTactic(), new IntPoint(4, 3));
 
     }
 
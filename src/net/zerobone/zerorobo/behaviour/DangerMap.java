@@ -0,0 +1,189 @@
+package net.zerobone.zerorobo.behaviour;
+
+/**
+ * The estimated danger of every tile of a {@link TileGrid}.
+ * <p>
+ * Danger decays exponentially over time. The decay is applied lazily: every
+ * tile remembers when it was last updated and its value is only brought up to
+ * date when the tile is read or written. Adding danger therefore costs time in
+ * the amount of affected tiles and never touches the rest of the grid.
+ */
+public final class DangerMap {
+
+    /**
+     * The factor by which danger decays per tick.
+     */
+    public static final double DECAY = .97;
+
+    // powers of DECAY, older danger is treated as gone
+    private static final int DECAY_TABLE_SIZE = 512;
+
+    private static final double[] DECAY_TABLE = new double[DECAY_TABLE_SIZE];
+
+    static {
+        double factor = 1;
+        for (int i = 0; i < DECAY_TABLE_SIZE; i++) {
+            DECAY_TABLE[i] = factor;
+            factor *= DECAY;
+        }
+    }
+
+    private final TileGrid grid;
+
+    private final double[] danger;
+
+    private final long[] updated;
+
+    public DangerMap(TileGrid grid) {
+        this.grid = grid;
+        danger = new double[grid.getTileCount()];
+        updated = new long[grid.getTileCount()];
+    }
+
+    private static double decay(long ticks) {
+        return ticks < DECAY_TABLE_SIZE ? DECAY_TABLE[(int)ticks] : 0;
+    }
+
+    /**
+     * Returns the danger of the given tile at the given time.
+     */
+    public double getDanger(int tile, long time) {
+
+        long age = time - updated[tile];
+
+        // reading a tile with a time before its last update does not decay it
+        return age <= 0 ? danger[tile] : danger[tile] * decay(age);
+
+    }
+
+    /**
+     * Adds the given amount of danger to the given tile.
+     */
+    public void addDanger(int tile, double amount, long time) {
+        danger[tile] = getDanger(tile, time) + amount;
+        updated[tile] = Math.max(updated[tile], time);
+    }
+
+    /**
+     * Adds danger around a position: the full amount to its tile and half of
+     * it to the neighbouring tiles.
+     */
+    public void addDangerAround(double x, double y, double amount, long time) {
+
+        int tile = grid.tileAt(x, y);
+
+        addDanger(tile, amount, time);
+
+        double neighbourAmount = amount * .5;
+
+        for (int neighbours = grid.getNeighbourMask(tile); neighbours != 0; neighbours &= neighbours - 1) {
+            addDanger(grid.getNeighbour(tile, Integer.numberOfTrailingZeros(neighbours)), neighbourAmount, time);
+        }
+
+    }
+
+    /**
+     * Adds the given amount of danger to every tile the segment between the
+     * given positions passes through. The part of the segment outside of the
+     * battlefield is ignored.
+     */
+    public void addDangerAlong(double x1, double y1, double x2, double y2, double amount, long time) {
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+
+        // clip the segment to the battlefield (Liang-Barsky)
+
+        double tMin = 0;
+        double tMax = 1;
+
+        for (int edge = 0; edge < 4; edge++) {
+
+            double p;
+            double q;
+
+            switch (edge) {
+                case 0: p = -dx; q = x1; break;
+                case 1: p = dx; q = grid.getBattleFieldWidth() - x1; break;
+                case 2: p = -dy; q = y1; break;
+                default: p = dy; q = grid.getBattleFieldHeight() - y1; break;
+            }
+
+            if (p == 0) {
+
+                if (q < 0) {
+                    // parallel to the edge and outside of it
+                    return;
+                }
+
+                continue;
+
+            }
+
+            double t = q / p;
+
+            if (p < 0) {
+                if (t > tMin) tMin = t;
+            }
+            else {
+                if (t < tMax) tMax = t;
+            }
+
+            if (tMin > tMax) {
+                return;
+            }
+
+        }
+
+        traverse(x1 + dx * tMin, y1 + dy * tMin, x1 + dx * tMax, y1 + dy * tMax, amount, time);
+
+    }
+
+    // walks the tiles along the segment in order (Amanatides-Woo)
+    private void traverse(double x1, double y1, double x2, double y2, double amount, long time) {
+
+        double cellWidth = grid.getCellWidth();
+        double cellHeight = grid.getCellHeight();
+
+        int tile = grid.tileAt(x1, y1);
+        int endTile = grid.tileAt(x2, y2);
+
+        int tileX = grid.getTileX(tile);
+        int tileY = grid.getTileY(tile);
+        int endX = grid.getTileX(endTile);
+        int endY = grid.getTileY(endTile);
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+
+        int stepX = endX > tileX ? 1 : -1;
+        int stepY = endY > tileY ? 1 : -1;
+
+        // the value of the segment parameter at which the next column or row
+        // boundary is crossed, and the distance between two boundaries
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? tileX + 1 : tileX) * cellWidth - x1) / dx;
+        double tMaxY = dy == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? tileY + 1 : tileY) * cellHeight - y1) / dy;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : cellWidth / Math.abs(dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : cellHeight / Math.abs(dy);
+
+        addDanger(tile, amount, time);
+
+        while (tileX != endX || tileY != endY) {
+
+            // rounding must not lead the walk past the last tile
+            if (tileY == endY || (tileX != endX && tMaxX < tMaxY)) {
+                tileX += stepX;
+                tMaxX += tDeltaX;
+            }
+            else {
+                tileY += stepY;
+                tMaxY += tDeltaY;
+            }
+
+            addDanger(grid.tileOf(tileX, tileY), amount, time);
+
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import robocode.Rules;
+
+/**
+ * Detects when an enemy fires by tracking its energy between scans.
+ * <p>
+ * Firing costs a robot the power of the bullet, so an energy drop between two
+ * scans that lies within the range of bullet powers is taken as a shot. Before
+ * comparing, the detector removes the other known causes of energy changes:
+ * damage dealt by our bullets, the damage of collisions with us, the estimated
+ * damage of hitting a wall and the energy the enemy gains when its bullets hit
+ * us.
+ * <p>
+ * The detector keeps only the last detected shot, which is overwritten by the
+ * next one, so it never allocates.
+ */
+public final class EnemyFireDetector {
+
+    // energy changes are compared with a little slack for rounding
+    private static final double EPSILON = 1e-3;
+
+    // robots touching a wall are at most this close to it
+    private static final double WALL_DISTANCE = MovementPredictor.HALF_ROBOT_SIZE + 1;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    private boolean scanned = false;
+
+    private double lastEnergy;
+    private double lastVelocity;
+    private double lastX;
+    private double lastY;
+    private long lastScanTime;
+
+    // energy changes since the last scan which are not caused by firing
+    private double expectedLoss = 0;
+    private double expectedGain = 0;
+
+    private int shots = 0;
+
+    private double power;
+    private double velocity;
+    private long originTime;
+    private double originX;
+    private double originY;
+
+    public EnemyFireDetector(double battleFieldWidth, double battleFieldHeight) {
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+    }
+
+    /**
+     * Forgets the last scan, must be called when another enemy is tracked.
+     */
+    public void reset() {
+        scanned = false;
+        expectedLoss = 0;
+        expectedGain = 0;
+    }
+
+    /**
+     * Must be called when one of our bullets hits the enemy.
+     */
+    public void onBulletHit(double bulletPower) {
+        expectedLoss += Rules.getBulletDamage(bulletPower);
+    }
+
+    /**
+     * Must be called when a bullet of the enemy hits us.
+     */
+    public void onHitByBullet(double bulletPower) {
+        expectedGain += Rules.getBulletHitBonus(bulletPower);
+    }
+
+    /**
+     * Must be called when we collide with the enemy.
+     */
+    public void onHitRobot() {
+        expectedLoss += Rules.ROBOT_HIT_DAMAGE;
+    }
+
+    /**
+     * Updates the detector with a new scan of the enemy. The events of the
+     * tick must have been passed to the detector before.
+     *
+     * @return {@code true} if the enemy fired since the last scan, the shot
+     *         can then be read from the getters
+     */
+    public boolean onScan(long time, double energy, double velocity, double x, double y) {
+
+        boolean fired = false;
+
+        if (scanned) {
+
+            if (lastVelocity != 0 && velocity == 0 && isAtWall(x, y)) {
+                // the enemy probably stopped because it hit a wall
+                expectedLoss += Rules.getWallHitDamage(lastVelocity);
+            }
+
+            double drop = lastEnergy - expectedLoss + expectedGain - energy;
+
+            if (drop >= Rules.MIN_BULLET_POWER - EPSILON && drop <= Rules.MAX_BULLET_POWER + EPSILON) {
+
+                power = Math.max(Rules.MIN_BULLET_POWER, Math.min(drop, Rules.MAX_BULLET_POWER));
+                this.velocity = Rules.getBulletSpeed(power);
+
+                // the energy drops in the tick the bullet is fired, which is
+                // the tick before the one it is seen in
+                originTime = Math.max(time - 1, lastScanTime);
+                originX = lastX;
+                originY = lastY;
+
+                shots++;
+                fired = true;
+
+            }
+
+        }
+
+        scanned = true;
+
+        lastEnergy = energy;
+        lastVelocity = velocity;
+        lastX = x;
+        lastY = y;
+        lastScanTime = time;
+
+        expectedLoss = 0;
+        expectedGain = 0;
+
+        return fired;
+
+    }
+
+    private boolean isAtWall(double x, double y) {
+        return x <= WALL_DISTANCE ||
+            y <= WALL_DISTANCE ||
+            x >= battleFieldWidth - WALL_DISTANCE ||
+            y >= battleFieldHeight - WALL_DISTANCE;
+    }
+
+    /**
+     * Returns the amount of shots detected so far.
+     */
+    public int getShots() {
+        return shots;
+    }
+
+    /**
+     * Returns the power of the last detected shot.
+     */
+    public double getPower() {
+        return power;
+    }
+
+    /**
+     * Returns the velocity of the bullet of the last detected shot.
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Returns the tick in which the last detected shot was fired.
+     */
+    public long getOriginTime() {
+        return originTime;
+    }
+
+    /**
+     * Returns the x coordinate of the enemy when it fired the last detected
+     * shot, as far as it is known.
+     */
+    public double getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Returns the y coordinate of the enemy when it fired the last detected
+     * shot, as far as it is known.
+     */
+    public double getOriginY() {
+        return originY;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,337 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.MutablePoint;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Keeps the last known state of every enemy on the battlefield.
+ * <p>
+ * Every enemy is identified by a dense index, which is assigned when its name
+ * is first seen and never changes during the battle. The names are interned,
+ * so the name returned for an index can be compared by reference. The state
+ * of the enemies is kept in one primitive array per value, indexed by the
+ * enemy, so updating an enemy on a scan does not allocate.
+ * <p>
+ * The registry is obtained through {@link #forRound()}, which keeps it in
+ * static state, so the indices and the hit statistics survive the rounds.
+ * <p>
+ * The registry also chooses the enemy to shoot at. An enemy is worth more the
+ * more likely we are to hit it and the less energy it has left, so that it
+ * goes down quickly.
+ */
+public final class EnemyRegistry {
+
+    /**
+     * The index used for "no enemy".
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The tick used as last seen tick of enemies not seen in this round.
+     */
+    public static final long NEVER = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the hit chance of an enemy we have not shot at yet, given as if that
+    // many of our bullets had already been fired
+    private static final double PRIOR_HITS = 1;
+    private static final double PRIOR_SHOTS = 8;
+
+    // the hit chance is measured at about this distance
+    private static final double REFERENCE_DISTANCE = 400;
+
+    // keeps enemies with little energy from being worth infinitely much,
+    // a robot with no energy left is disabled but not dead yet
+    private static final double ENERGY_OFFSET = 20;
+
+    // enemies which have not been scanned for longer than this are not
+    // targeted, their position is too uncertain
+    private static final long MAX_TARGET_AGE = 20;
+
+    // another enemy must be worth this much more than the current target to
+    // switch, so close scores do not flip the target back and forth: every
+    // switch turns the gun away, and the intercept solver and the fire
+    // detector have to start over
+    private static final double SWITCH_FACTOR = 1.25;
+
+    private static EnemyRegistry cached = null;
+
+    private final HashMap<String, Integer> indices = new HashMap<>();
+
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] heading = new double[INITIAL_CAPACITY];
+    private double[] velocity = new double[INITIAL_CAPACITY];
+    private double[] energy = new double[INITIAL_CAPACITY];
+    private long[] lastSeen = new long[INITIAL_CAPACITY];
+    private boolean[] alive = new boolean[INITIAL_CAPACITY];
+
+    // our bullets fired at and hitting every enemy, counted over the whole
+    // battle
+    private int[] shots = new int[INITIAL_CAPACITY];
+    private int[] hits = new int[INITIAL_CAPACITY];
+
+    private int count = 0;
+
+    private int target = NONE;
+
+    /**
+     * Returns the registry of the battle with all enemies marked as alive and
+     * not seen in this round.
+     */
+    public static EnemyRegistry forRound() {
+
+        EnemyRegistry registry = cached;
+
+        if (registry == null) {
+            registry = new EnemyRegistry();
+            cached = registry;
+        }
+
+        registry.startRound();
+
+        return registry;
+
+    }
+
+    private EnemyRegistry() {}
+
+    private void startRound() {
+
+        Arrays.fill(lastSeen, 0, count, NEVER);
+        Arrays.fill(alive, 0, count, true);
+
+        target = NONE;
+
+    }
+
+    /**
+     * Returns the index of the enemy with the given name or {@link #NONE} if
+     * it has never been seen.
+     */
+    public int indexOf(String name) {
+
+        Integer index = indices.get(name);
+
+        return index == null ? NONE : index;
+
+    }
+
+    private int register(String name) {
+
+        Integer index = indices.get(name);
+
+        if (index != null) {
+            return index;
+        }
+
+        if (count == names.length) {
+
+            int capacity = count << 1;
+
+            names = Arrays.copyOf(names, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            heading = Arrays.copyOf(heading, capacity);
+            velocity = Arrays.copyOf(velocity, capacity);
+            energy = Arrays.copyOf(energy, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            shots = Arrays.copyOf(shots, capacity);
+            hits = Arrays.copyOf(hits, capacity);
+
+        }
+
+        int enemy = count++;
+
+        name = name.intern();
+
+        names[enemy] = name;
+        alive[enemy] = true;
+        indices.put(name, enemy);
+
+        return enemy;
+
+    }
+
+    /**
+     * Updates the state of an enemy with a new scan, registering the enemy if
+     * it is seen for the first time.
+     *
+     * @return the index of the enemy
+     */
+    public int onScan(String name, long time, double x, double y, double heading, double velocity, double energy) {
+
+        int enemy = register(name);
+
+        this.x[enemy] = x;
+        this.y[enemy] = y;
+        this.heading[enemy] = heading;
+        this.velocity[enemy] = velocity;
+        this.energy[enemy] = energy;
+        lastSeen[enemy] = time;
+        alive[enemy] = true;
+
+        return enemy;
+
+    }
+
+    /**
+     * Must be called when an enemy dies.
+     */
+    public void onDeath(String name) {
+
+        int enemy = indexOf(name);
+
+        if (enemy == NONE) {
+            return;
+        }
+
+        alive[enemy] = false;
+
+        if (target == enemy) {
+            target = NONE;
+        }
+
+    }
+
+    /**
+     * Must be called when we fire a bullet at an enemy.
+     */
+    public void onFire(int enemy) {
+        shots[enemy]++;
+    }
+
+    /**
+     * Must be called when one of our bullets hits an enemy.
+     */
+    public void onBulletHit(String name) {
+
+        int enemy = indexOf(name);
+
+        if (enemy != NONE) {
+            hits[enemy]++;
+        }
+
+    }
+
+    /**
+     * Returns the estimated chance of hitting the given enemy from the given
+     * distance. The estimate is the share of our bullets that hit the enemy
+     * during the battle, starting from a prior for enemies we have barely
+     * shot at.
+     */
+    public double getHitChance(int enemy, double distance) {
+
+        double rate = (hits[enemy] + PRIOR_HITS) / (shots[enemy] + PRIOR_SHOTS);
+
+        // the enemy covers an angle inversely proportional to the distance
+        return Math.min(rate * REFERENCE_DISTANCE / Math.max(distance, 1), 1);
+
+    }
+
+    private double getScore(int enemy, double myX, double myY) {
+
+        double distance = MutablePoint.distance(myX, myY, x[enemy], y[enemy]);
+
+        return getHitChance(enemy, distance) / (energy[enemy] + ENERGY_OFFSET);
+
+    }
+
+    /**
+     * Chooses the enemy to shoot at. The current target is only replaced if
+     * another enemy is worth clearly more.
+     *
+     * @return the index of the target or {@link #NONE} if no enemy alive has
+     *         been seen recently
+     */
+    public int selectTarget(long time, double myX, double myY) {
+
+        if (target != NONE && time - lastSeen[target] > MAX_TARGET_AGE) {
+            target = NONE;
+        }
+
+        int best = target;
+        double bestScore = target == NONE ? 0 : getScore(target, myX, myY) * SWITCH_FACTOR;
+
+        for (int enemy = 0; enemy < count; enemy++) {
+
+            if (!alive[enemy] || enemy == target || lastSeen[enemy] == NEVER || time - lastSeen[enemy] > MAX_TARGET_AGE) {
+                continue;
+            }
+
+            double score = getScore(enemy, myX, myY);
+
+            if (score > bestScore) {
+                best = enemy;
+                bestScore = score;
+            }
+
+        }
+
+        target = best;
+
+        return target;
+
+    }
+
+    /**
+     * Returns the current target or {@link #NONE}.
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the amount of enemies seen during the battle, the indices are
+     * between 0 and this amount.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the interned name of the given enemy.
+     */
+    public String getName(int enemy) {
+        return names[enemy];
+    }
+
+    public double getX(int enemy) {
+        return x[enemy];
+    }
+
+    public double getY(int enemy) {
+        return y[enemy];
+    }
+
+    public double getHeading(int enemy) {
+        return heading[enemy];
+    }
+
+    public double getVelocity(int enemy) {
+        return velocity[enemy];
+    }
+
+    public double getEnergy(int enemy) {
+        return energy[enemy];
+    }
+
+    /**
+     * Returns the tick the given enemy was last scanned in or {@link #NEVER}
+     * if it has not been scanned in this round.
+     */
+    public long getLastSeen(int enemy) {
+        return lastSeen[enemy];
+    }
+
+    public boolean isAlive(int enemy) {
+        return alive[enemy];
+    }
+
+}
\ No newline at end of file
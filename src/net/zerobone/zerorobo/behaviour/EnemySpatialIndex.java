@@ -0,0 +1,270 @@
+package net.zerobone.zerorobo.behaviour;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the battlefield holding the positions of the enemies in
+ * an {@link EnemyRegistry}.
+ * <p>
+ * The index is rebuilt from the registry once per tick with a counting sort:
+ * the entries of every cell are stored next to each other, cell after cell, so
+ * the entries of a cell are the range between {@link #getCellStart(int)} and
+ * {@link #getCellEnd(int)}. Queries around a position only look at the cells
+ * close to it instead of at every enemy.
+ * <p>
+ * The entries copy the position and energy of their enemy, so iterating over
+ * a cell reads consecutive memory. All arrays are allocated once and only grow
+ * when more enemies are known than they can hold.
+ */
+public final class EnemySpatialIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int columns;
+    private final int rows;
+
+    private final double cellSize;
+
+    // cellStarts[cell] is the first entry of the cell, cellStarts[cells] the
+    // amount of entries
+    private final int[] cellStarts;
+
+    // the cell of every enemy in the registry, -1 if the enemy is not indexed
+    private int[] enemyCells = new int[INITIAL_CAPACITY];
+
+    private int[] entryEnemies = new int[INITIAL_CAPACITY];
+    private double[] entryX = new double[INITIAL_CAPACITY];
+    private double[] entryY = new double[INITIAL_CAPACITY];
+    private double[] entryEnergy = new double[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    public EnemySpatialIndex(double battleFieldWidth, double battleFieldHeight, double cellSize) {
+
+        this.cellSize = cellSize;
+
+        columns = Math.max(1, (int)Math.ceil(battleFieldWidth / cellSize));
+        rows = Math.max(1, (int)Math.ceil(battleFieldHeight / cellSize));
+
+        cellStarts = new int[columns * rows + 1];
+
+    }
+
+    /**
+     * Indexes every living enemy that has been scanned in this round.
+     */
+    public void rebuild(EnemyRegistry registry) {
+
+        int enemies = registry.getCount();
+
+        if (enemies > enemyCells.length) {
+
+            int capacity = Math.max(enemies, enemyCells.length << 1);
+
+            enemyCells = new int[capacity];
+            entryEnemies = new int[capacity];
+            entryX = new double[capacity];
+            entryY = new double[capacity];
+            entryEnergy = new double[capacity];
+
+        }
+
+        int cells = columns * rows;
+
+        Arrays.fill(cellStarts, 0);
+
+        // count the entries of every cell, shifted by one
+        for (int enemy = 0; enemy < enemies; enemy++) {
+
+            if (!registry.isAlive(enemy) || registry.getLastSeen(enemy) == EnemyRegistry.NEVER) {
+                enemyCells[enemy] = -1;
+                continue;
+            }
+
+            int cell = cellAt(registry.getX(enemy), registry.getY(enemy));
+
+            enemyCells[enemy] = cell;
+            cellStarts[cell + 1]++;
+
+        }
+
+        for (int cell = 0; cell < cells; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+
+        size = cellStarts[cells];
+
+        // place the entries, using the start of the next cell as the write
+        // position of a cell and shifting it back afterwards
+        for (int enemy = 0; enemy < enemies; enemy++) {
+
+            int cell = enemyCells[enemy];
+
+            if (cell < 0) {
+                continue;
+            }
+
+            int entry = cellStarts[cell]++;
+
+            entryEnemies[entry] = enemy;
+            entryX[entry] = registry.getX(enemy);
+            entryY[entry] = registry.getY(enemy);
+            entryEnergy[entry] = registry.getEnergy(enemy);
+
+        }
+
+        for (int cell = cells; cell > 0; cell--) {
+            cellStarts[cell] = cellStarts[cell - 1];
+        }
+
+        cellStarts[0] = 0;
+
+    }
+
+    /**
+     * Returns the cell containing the given position. Positions outside of
+     * the battlefield are mapped to the closest cell.
+     */
+    public int cellAt(double x, double y) {
+
+        int cellX = (int)(x / cellSize);
+        int cellY = (int)(y / cellSize);
+
+        if (cellX < 0) cellX = 0;
+        else if (cellX >= columns) cellX = columns - 1;
+
+        if (cellY < 0) cellY = 0;
+        else if (cellY >= rows) cellY = rows - 1;
+
+        return cellY * columns + cellX;
+
+    }
+
+    /**
+     * Returns the squared distance from the given position to the closest
+     * indexed enemy other than the given one or
+     * {@link Double#POSITIVE_INFINITY} if there is none.
+     *
+     * @param exclude the enemy to skip or {@link EnemyRegistry#NONE}
+     */
+    public double nearestDistanceSq(double x, double y, int exclude) {
+
+        int cellX = Math.max(0, Math.min((int)(x / cellSize), columns - 1));
+        int cellY = Math.max(0, Math.min((int)(y / cellSize), rows - 1));
+
+        int maxRing = Math.max(Math.max(cellX, columns - 1 - cellX), Math.max(cellY, rows - 1 - cellY));
+
+        double best = Double.POSITIVE_INFINITY;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+
+            // everything in this ring and beyond is at least this far away
+            double ringDistance = (ring - 1) * cellSize;
+
+            if (ring > 1 && ringDistance * ringDistance >= best) {
+                break;
+            }
+
+            for (int cy = cellY - ring; cy <= cellY + ring; cy++) {
+
+                if (cy < 0 || cy >= rows) {
+                    continue;
+                }
+
+                boolean edgeRow = cy == cellY - ring || cy == cellY + ring;
+
+                // inner rows of the ring only have their first and last cell
+                int step = edgeRow || ring == 0 ? 1 : ring << 1;
+
+                for (int cx = cellX - ring; cx <= cellX + ring; cx += step) {
+
+                    if (cx < 0 || cx >= columns) {
+                        continue;
+                    }
+
+                    int cell = cy * columns + cx;
+
+                    for (int entry = cellStarts[cell]; entry < cellStarts[cell + 1]; entry++) {
+
+                        if (entryEnemies[entry] == exclude) {
+                            continue;
+                        }
+
+                        double dx = entryX[entry] - x;
+                        double dy = entryY[entry] - y;
+                        double distanceSq = dx * dx + dy * dy;
+
+                        if (distanceSq < best) {
+                            best = distanceSq;
+                        }
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        return best;
+
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellCount() {
+        return columns * rows;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the first entry of the given cell.
+     */
+    public int getCellStart(int cell) {
+        return cellStarts[cell];
+    }
+
+    /**
+     * Returns the entry after the last entry of the given cell.
+     */
+    public int getCellEnd(int cell) {
+        return cellStarts[cell + 1];
+    }
+
+    /**
+     * Returns the amount of entries, the entries are numbered from 0 to this
+     * amount.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the enemy of the given entry in the registry.
+     */
+    public int getEnemy(int entry) {
+        return entryEnemies[entry];
+    }
+
+    public double getX(int entry) {
+        return entryX[entry];
+    }
+
+    public double getY(int entry) {
+        return entryY[entry];
+    }
+
+    public double getEnergy(int entry) {
+        return entryEnergy[entry];
+    }
+
+}
\ No newline at end of file
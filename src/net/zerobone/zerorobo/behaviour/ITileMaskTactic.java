@@ -0,0 +1,29 @@
+package net.zerobone.zerorobo.behaviour;
+
+/**
+ * A tile tactic working on the neighbourhood bitmask of {@link TileGrid}.
+ * <p>
+ * The candidates are the neighbours of the robot's tile, given as a bitmask
+ * over the directions of {@link TileGrid}. Tiles are packed tile ids. This
+ * contract replaces the per-tile calls and the list of {@link ITileTactic},
+ * so that evaluating a tactic costs a few integer operations.
+ */
+public interface ITileMaskTactic {
+
+    /**
+     * Removes the candidates the tactic does not want to move to.
+     *
+     * @param candidates bitmask over the directions of the available neighbours
+     * @return the bitmask of the accepted candidates, a subset of the given one
+     */
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile);
+
+    /**
+     * Chooses the tile to move to from the given non-empty candidates.
+     *
+     * @param candidates bitmask over the directions of the accepted neighbours
+     * @return the id of the chosen tile
+     */
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile);
+
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.MutablePoint;
+
+import java.util.Arrays;
+
+/**
+ * Movement for melee battles that drives to the least risky position nearby.
+ * <p>
+ * Candidate destinations are sampled on a circle around the robot and every
+ * candidate is rated by the risk it poses with respect to all known enemies.
+ * An enemy adds risk proportional to its energy and inversely proportional to
+ * the squared distance to the candidate. The risk doubles if the enemy is
+ * probably targeting us, which is the case if we are the robot closest to it.
+ * Staying close to the current position is risky as well, since it is where
+ * the enemies aim.
+ * <p>
+ * The enemies are looked up in an {@link EnemySpatialIndex}. Enemies in the
+ * cells around a candidate are rated one by one, while the enemies of every
+ * other cell are combined into a single enemy at their weighted centre. The
+ * far enemies contribute little risk, so this barely changes the ratings, but
+ * the cost per candidate no longer grows with the amount of enemies.
+ */
+public final class MinimumRiskMovement {
+
+    // the cells up to this far from the cell of a candidate are rated enemy
+    // by enemy
+    private static final int NEAR_CELLS = 1;
+
+    // the risk of an enemy that is probably targeting us is multiplied by one
+    // plus this weight
+    private static final double TARGETING_WEIGHT = 1;
+
+    // risk of staying at the current position, compared to the one of an
+    // enemy with this much energy at the same distance
+    private static final double POSITION_RISK = 30;
+
+    // the distance of the candidates from the robot is a fraction of the
+    // distance to the closest enemy, within these bounds
+    private static final double CLOSEST_ENEMY_FRACTION = .5;
+    private static final double MIN_CANDIDATE_DISTANCE = 100;
+    private static final double MAX_CANDIDATE_DISTANCE = 200;
+
+    // distance kept between the centre of the robot and the walls
+    private static final double WALL_MARGIN = 30;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final EnemySpatialIndex index;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    // the risk weight of every entry of the index
+    private double[] weights = new double[INITIAL_CAPACITY];
+
+    // the combined enemy of every cell
+    private final double[] cellWeights;
+    private final double[] cellX;
+    private final double[] cellY;
+
+    private boolean hasDestination = false;
+    private double destinationX;
+    private double destinationY;
+
+    public MinimumRiskMovement(EnemySpatialIndex index, double battleFieldWidth, double battleFieldHeight) {
+
+        this.index = index;
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+
+        int cells = index.getCellCount();
+
+        cellWeights = new double[cells];
+        cellX = new double[cells];
+        cellY = new double[cells];
+
+    }
+
+    /**
+     * Chooses the destination with the least risk among the given amount of
+     * candidates and the current destination. The index must have been
+     * rebuilt in this tick.
+     *
+     * @return {@code false} if there are no enemies to move away from
+     */
+    public boolean update(double myX, double myY, int candidates) {
+
+        if (index.size() == 0) {
+            hasDestination = false;
+            return false;
+        }
+
+        prepareWeights(myX, myY);
+
+        double closest = Math.sqrt(index.nearestDistanceSq(myX, myY, EnemyRegistry.NONE));
+
+        double distance = Math.max(MIN_CANDIDATE_DISTANCE, Math.min(closest * CLOSEST_ENEMY_FRACTION, MAX_CANDIDATE_DISTANCE));
+
+        double bestX;
+        double bestY;
+        double bestRisk;
+
+        if (hasDestination) {
+            bestX = destinationX;
+            bestY = destinationY;
+            bestRisk = getRisk(bestX, bestY, myX, myY);
+        }
+        else {
+            bestX = myX;
+            bestY = myY;
+            bestRisk = Double.POSITIVE_INFINITY;
+        }
+
+        // a random offset keeps the candidates from always lying on the same
+        // angles
+        double offset = Math.random() * 2 * Math.PI / candidates;
+
+        for (int i = 0; i < candidates; i++) {
+
+            double angle = offset + 2 * Math.PI * i / candidates;
+
+            double x = clamp(myX + Math.sin(angle) * distance, WALL_MARGIN, battleFieldWidth - WALL_MARGIN);
+            double y = clamp(myY + Math.cos(angle) * distance, WALL_MARGIN, battleFieldHeight - WALL_MARGIN);
+
+            double risk = getRisk(x, y, myX, myY);
+
+            if (risk < bestRisk) {
+                bestX = x;
+                bestY = y;
+                bestRisk = risk;
+            }
+
+        }
+
+        hasDestination = true;
+        destinationX = bestX;
+        destinationY = bestY;
+
+        return true;
+
+    }
+
+    // rates every enemy and combines the enemies of every cell
+    private void prepareWeights(double myX, double myY) {
+
+        int entries = index.size();
+
+        if (entries > weights.length) {
+            weights = new double[Math.max(entries, weights.length << 1)];
+        }
+
+        Arrays.fill(cellWeights, 0);
+        Arrays.fill(cellX, 0);
+        Arrays.fill(cellY, 0);
+
+        for (int cell = 0; cell < cellWeights.length; cell++) {
+
+            for (int entry = index.getCellStart(cell); entry < index.getCellEnd(cell); entry++) {
+
+                double x = index.getX(entry);
+                double y = index.getY(entry);
+
+                double dx = x - myX;
+                double dy = y - myY;
+
+                // an enemy is likely to target us if we are closer to it than
+                // any other enemy
+                double toUs = dx * dx + dy * dy;
+                double toOthers = index.nearestDistanceSq(x, y, index.getEnemy(entry));
+
+                double targeting = toUs <= toOthers ? 1 : toOthers / toUs;
+
+                double weight = index.getEnergy(entry) * (1 + TARGETING_WEIGHT * targeting);
+
+                weights[entry] = weight;
+
+                cellWeights[cell] += weight;
+                cellX[cell] += x * weight;
+                cellY[cell] += y * weight;
+
+            }
+
+            if (cellWeights[cell] > 0) {
+                cellX[cell] /= cellWeights[cell];
+                cellY[cell] /= cellWeights[cell];
+            }
+
+        }
+
+    }
+
+    private double getRisk(double x, double y, double myX, double myY) {
+
+        int columns = index.getColumns();
+
+        int cell = index.cellAt(x, y);
+        int cellColumn = cell % columns;
+        int cellRow = cell / columns;
+
+        double risk = POSITION_RISK / Math.max(MutablePoint.distanceSq(x, y, myX, myY), 1);
+
+        for (int other = 0; other < cellWeights.length; other++) {
+
+            if (cellWeights[other] == 0) {
+                continue;
+            }
+
+            int column = other % columns;
+            int row = other / columns;
+
+            if (Math.abs(column - cellColumn) <= NEAR_CELLS && Math.abs(row - cellRow) <= NEAR_CELLS) {
+
+                for (int entry = index.getCellStart(other); entry < index.getCellEnd(other); entry++) {
+                    risk += weights[entry] / Math.max(MutablePoint.distanceSq(x, y, index.getX(entry), index.getY(entry)), 1);
+                }
+
+            }
+            else {
+
+                risk += cellWeights[other] / Math.max(MutablePoint.distanceSq(x, y, cellX[other], cellY[other]), 1);
+
+            }
+
+        }
+
+        return risk;
+
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    public double getDestinationX() {
+        return destinationX;
+    }
+
+    public double getDestinationY() {
+        return destinationY;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+/**
+ * Decides where the radar turns to, based on the enemies in an
+ * {@link EnemyRegistry}.
+ * <p>
+ * Against a single enemy the radar is locked on it: every tick it turns past
+ * the enemy by just enough to cover where the enemy can have moved to, which
+ * scans it again every tick. In melee the radar sweeps towards the enemy whose
+ * data is the oldest, so every enemy is rescanned as soon as possible. Until
+ * all enemies have been seen, or if the lock is lost for too long, the radar
+ * spins to find them.
+ * <p>
+ * Enemies that have not been rescanned are assumed to keep their heading and
+ * velocity, so the radar turns to where they are now rather than to where
+ * they were seen.
+ */
+public final class RadarController {
+
+    // the radar turns at most this many degrees per tick
+    private static final double MAX_RADAR_TURN = 45;
+
+    // the lock is given up once the target has been missed for this many ticks
+    private static final long MAX_LOCK_AGE = 3;
+
+    private final EnemyRegistry registry;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    private final MutablePoint predicted = new MutablePoint();
+
+    // the direction the radar spins in while searching, 1 or -1
+    private double spinDirection = 1;
+
+    public RadarController(EnemyRegistry registry, double battleFieldWidth, double battleFieldHeight) {
+        this.registry = registry;
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+    }
+
+    /**
+     * Returns the angle to turn the radar by in this tick.
+     *
+     * @param others the amount of enemies still alive
+     */
+    public double getTurn(long time, double myX, double myY, double radarHeading, int others) {
+
+        int enemy;
+
+        if (others == 1) {
+
+            enemy = registry.getTarget();
+
+            if (enemy == EnemyRegistry.NONE || time - registry.getLastSeen(enemy) > MAX_LOCK_AGE) {
+                // the lock is lost
+                return spin();
+            }
+
+        }
+        else {
+
+            enemy = findOldest(others);
+
+            if (enemy == EnemyRegistry.NONE) {
+                // not every enemy has been seen yet
+                return spin();
+            }
+
+        }
+
+        long age = time - registry.getLastSeen(enemy);
+
+        predict(enemy, age);
+
+        double distance = predicted.distance(myX, myY);
+        double angle = MutablePoint.angle(myX, myY, predicted.x, predicted.y);
+
+        double turn = Utils.normalRelativeAngle(angle - radarHeading);
+
+        // a zero turn would pick no direction and miss the enemy
+        double direction = turn < 0 ? -1 : 1;
+
+        // turn past the enemy by its half width and the distance it can have
+        // moved in the meantime, so it is inside the scanned arc
+        double margin = MovementPredictor.HALF_ROBOT_SIZE + MovementPredictor.MAX_VELOCITY * (age + 1);
+
+        double overshoot = Math.toDegrees(Math.atan2(margin, distance));
+
+        spinDirection = direction;
+
+        return turn + direction * Math.min(overshoot, MAX_RADAR_TURN);
+
+    }
+
+    private double spin() {
+        return spinDirection * Double.POSITIVE_INFINITY;
+    }
+
+    // the living enemy with the oldest scan or NONE if not all of them have
+    // been scanned in this round
+    private int findOldest(int others) {
+
+        int oldest = EnemyRegistry.NONE;
+        int seen = 0;
+
+        for (int enemy = 0; enemy < registry.getCount(); enemy++) {
+
+            if (!registry.isAlive(enemy) || registry.getLastSeen(enemy) == EnemyRegistry.NEVER) {
+                continue;
+            }
+
+            seen++;
+
+            if (oldest == EnemyRegistry.NONE || registry.getLastSeen(enemy) < registry.getLastSeen(oldest)) {
+                oldest = enemy;
+            }
+
+        }
+
+        return seen < others ? EnemyRegistry.NONE : oldest;
+
+    }
+
+    // moves the enemy along its last heading for the given amount of ticks
+    private void predict(int enemy, long ticks) {
+
+        predicted.set(registry.getX(enemy), registry.getY(enemy));
+        predicted.addPolar(registry.getHeading(enemy), registry.getVelocity(enemy) * ticks);
+
+        predicted.x = Math.max(MovementPredictor.HALF_ROBOT_SIZE, Math.min(predicted.x, battleFieldWidth - MovementPredictor.HALF_ROBOT_SIZE));
+        predicted.y = Math.max(MovementPredictor.HALF_ROBOT_SIZE, Math.min(predicted.y, battleFieldHeight - MovementPredictor.HALF_ROBOT_SIZE));
+
+    }
+
+}
\ No newline at end of file
@@ -1,37 +1,138 @@
 package net.zerobone.zerorobo.behaviour;
 
 import net.zerobone.zerorobo.ZeroRobo;
+import net.zerobone.zerorobo.behaviour.guns.BulletPowerSelector;
+import net.zerobone.zerorobo.behaviour.guns.GuessFactorGun;
+import net.zerobone.zerorobo.behaviour.guns.InterceptSolver;
+import net.zerobone.zerorobo.behaviour.guns.KnnGun;
+import net.zerobone.zerorobo.behaviour.guns.PatternGun;
+import net.zerobone.zerorobo.behaviour.guns.VirtualGuns;
 import net.zerobone.zerorobo.utils.*;
-import net.zerobone.zerorobo.utils.Point;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.Arrays;
 
-public class TileBehaviour extends SimpleRobotBehaviour {
+public class TileBehaviour extends SimpleRobotBehaviour implements EventVisitor {
+
+    // danger added per tick and point of enemy energy around the enemy
+    private static final double ENEMY_DANGER = .005;
+
+    // danger added per point of bullet power along the path of a bullet
+    private static final double BULLET_DANGER = 4;
+
+    // danger added per point of bullet power along the path of a bullet that
+    // hit us, on top of the path estimated when it was fired
+    private static final double HIT_DANGER = 8;
+
+    // the guns rated against each other, ties go to the later gun
+    private static final int HEAD_ON_GUN = 0;
+    private static final int LINEAR_GUN = 1;
+    private static final int CIRCULAR_GUN = 2;
+    private static final int GUESS_FACTOR_GUN = 3;
+    private static final int KNN_GUN = 4;
+    private static final int PATTERN_GUN = 5;
+    private static final int GUNS = 6;
+
+    private static final int INITIAL_ENEMIES = 16;
+
+    // while the budget is reduced, the surfing direction is only re-evaluated
+    // every this many ticks
+    private static final long SURF_REEVALUATION_TICKS = 4;
+
+    // all guns are only aimed in this many ticks before the gun can fire,
+    // the gun turns fast enough to follow the head-on angle until then
+    private static final long FULL_AIM_TICKS = 2;
+
+    // edge length of the cells the enemies are sorted into for the melee
+    // movement
+    private static final double ENEMY_CELL_SIZE = 200;
+
+    // the amount of destinations rated per tick by the melee movement, by
+    // tick budget mode
+    private static final int FULL_RISK_CANDIDATES = 32;
+    private static final int REDUCED_RISK_CANDIDATES = 16;
+    private static final int MINIMAL_RISK_CANDIDATES = 8;
 
     private double futureX = 0;
     private double futureY = 0;
 
-    private static final IntPoint quadLayout = new IntPoint(4, 3);
+    // null if the layout is derived from the battlefield
+    private final IntPoint quadLayout;
+
+    private TileGrid grid;
+
+    private DangerMap dangerMap;
+
+    private EnemyFireDetector fireDetector;
+
+    private WaveSurfer waveSurfer;
+
+    private InterceptSolver interceptSolver;
+
+    private EnemyRegistry registry;
 
-    private Point targetPosition = null;
-    private IntPoint targetQuad = null;
+    // created when the enemy to track is chosen
+    private GuessFactorGun guessFactorGun;
+    private KnnGun knnGun;
+    private PatternGun patternGun;
+    private VirtualGuns virtualGuns;
+
+    // the guns of every enemy, indexed by the registry, created when the
+    // enemy is first scanned in a round and kept until the round ends
+    private GuessFactorGun[] guessFactorGuns = new GuessFactorGun[INITIAL_ENEMIES];
+    private KnnGun[] knnGuns = new KnnGun[INITIAL_ENEMIES];
+    private PatternGun[] patternGuns = new PatternGun[INITIAL_ENEMIES];
+    private VirtualGuns[] virtualGunsByEnemy = new VirtualGuns[INITIAL_ENEMIES];
+
+    // the angle every gun aims at in this tick, NaN if not available
+    private final double[] gunAims = new double[GUNS];
+    private long lastSurfEvaluation = Long.MIN_VALUE;
+
+    // the gun chosen in the last tick, its hit rate decides the bullet power
+    private int bestGun = HEAD_ON_GUN;
+
+    private final MutablePoint targetPosition = new MutablePoint();
+    private int targetQuad = TileGrid.NO_TILE;
 
     private String trackingTankName = null;
+    private int target = EnemyRegistry.NONE;
+
+    // the position of the enemy scanned last, which need not be the target
+    private final MutablePoint scannedPosition = new MutablePoint();
 
     // enemy information
-    public Point enemyPosition;
-    private double enemyVelocity;
-    private double enemyHeading;
+    public final MutablePoint enemyPosition = new MutablePoint();
     private double distanceToEnemy;
+    private double enemyEnergy = 100;
+
+    private RadarController radarController;
+
+    private EnemySpatialIndex enemyIndex;
 
-    private int lostEnemyCounter;
+    private MinimumRiskMovement riskMovement;
 
     private TileTactic tileTactic;
 
+    // profiler phases
+    private final int scanPhase;
+    private final int radarPhase;
+    private final int movementPhase;
+    private final int gunPhase;
+
     public TileBehaviour(ZeroRobo robo, TileTactic tileTactic) {
+        this(robo, tileTactic, null);
+    }
+
+    public TileBehaviour(ZeroRobo robo, TileTactic tileTactic, IntPoint quadLayout) {
         super(robo);
         this.tileTactic = tileTactic;
+        this.quadLayout = quadLayout;
+
+        TickProfiler profiler = getProfiler();
+        scanPhase = profiler.register("scan");
+        radarPhase = profiler.register("radar");
+        movementPhase = profiler.register("movement");
+        gunPhase = profiler.register("gun");
     }
 
     @Override
@@ -47,6 +148,30 @@ public class TileBehaviour extends SimpleRobotBehaviour {
 
         setColors(bodyColor, gunColor, radarColor, bulletColor, scanArcColor);
 
+        grid = TileGrid.forBattleField(
+            getBattleFieldWidth(),
+            getBattleFieldHeight(),
+            Math.max(getWidth(), getHeight()),
+            quadLayout == null ? 0 : quadLayout.x,
+            quadLayout == null ? 0 : quadLayout.y
+        );
+
+        dangerMap = new DangerMap(grid);
+
+        fireDetector = new EnemyFireDetector(getBattleFieldWidth(), getBattleFieldHeight());
+
+        waveSurfer = new WaveSurfer(getBattleFieldWidth(), getBattleFieldHeight());
+
+        interceptSolver = new InterceptSolver(getBattleFieldWidth(), getBattleFieldHeight());
+
+        registry = EnemyRegistry.forRound();
+
+        radarController = new RadarController(registry, getBattleFieldWidth(), getBattleFieldHeight());
+
+        enemyIndex = new EnemySpatialIndex(getBattleFieldWidth(), getBattleFieldHeight(), ENEMY_CELL_SIZE);
+
+        riskMovement = new MinimumRiskMovement(enemyIndex, getBattleFieldWidth(), getBattleFieldHeight());
+
         turnRadar(720);
 
     }
@@ -54,256 +179,535 @@ public class TileBehaviour extends SimpleRobotBehaviour {
     @Override
     protected void execute() {
 
-        for (ScannedRobotEvent event : getScannedRobotEvents()) {
-            onRobotScannedEvent(event);
-        }
+        dispatchEvents(this);
 
-        // double
+        getProfiler().begin(radarPhase);
+        turnRadar(radarController.getTurn(getTime(), getX(), getY(), getRadarHeading(), getOthers()));
+        getProfiler().end(radarPhase);
 
-        // turnRadar(10);
+        getProfiler().begin(movementPhase);
 
-        lostEnemyCounter++;
+        // surfing only works against a single enemy
+        boolean moved = getOthers() > 1 ? avoidRisk() : surf();
 
-        if (lostEnemyCounter > 200) {
-            turnRadar(Double.POSITIVE_INFINITY);
-            lostEnemyCounter = 0;
+        if (!moved && targetQuad != TileGrid.NO_TILE) {
+            go(targetPosition.x, targetPosition.y);
         }
 
-        if (targetPosition != null) {
-
-            go(targetPosition.getX(), targetPosition.getY());
-
-        }
+        getProfiler().end(movementPhase);
 
         if (trackingTankName != null) {
+            getProfiler().begin(gunPhase);
             processShooting();
+            getProfiler().end(gunPhase);
         }
 
     }
 
-    private void processShooting() {
+    @Override
+    public void onScanned(ScannedRobotEvent event) {
+        getProfiler().begin(scanPhase);
+        onRobotScannedEvent(event);
+        getProfiler().end(scanPhase);
+    }
 
-        double distance = enemyPosition.subtract(getX(), getY()).length();
+    @Override
+    public void onRobotDeath(RobotDeathEvent event) {
 
-        double firePower = Math.min(500 / distance, 3);
-        // double firePower = Math.min(0xff / distance, 3);
+        registry.onDeath(event.getName());
 
-        // System.out.println(firePower + " " + distance);
+        if (isTracking(event.getName())) {
+            // the next scan chooses a new target
+            trackingTankName = null;
+            target = EnemyRegistry.NONE;
+        }
 
-        // calculate speed of bullet: 20 and 3 are from the robocode wiki
-        double bulletSpeed = 20 - firePower * 3;
+    }
 
-        long time = (long)(distanceToEnemy / bulletSpeed);
+    @Override
+    public void onBulletHit(BulletHitEvent event) {
 
-        futureX = getFutureX((int)enemyPosition.getX(), enemyHeading, enemyVelocity, time);
-        futureY = getFutureY((int)enemyPosition.getY(), enemyHeading, enemyVelocity, time);
+        registry.onBulletHit(event.getName());
 
-        double absoluteDegree = absoluteBearing(getX(), getY(), futureX, futureY);
+        if (isTracking(event.getName())) {
+            fireDetector.onBulletHit(event.getBullet().getPower());
+        }
 
-        turnGun(Utils.normalRelativeAngle(absoluteDegree - getGunHeading()));
+    }
 
-        if (getGunHeat() <= 1e-5 && Math.abs(getGunTurnRemaining()) < 10) {
+    @Override
+    public void onBulletHitBullet(BulletHitBulletEvent event) {
 
-            fireBullet(firePower);
+        Bullet hitBullet = event.getHitBullet();
 
+        if (isTracking(hitBullet.getName())) {
+            waveSurfer.onBulletHit(getTime(), hitBullet.getX(), hitBullet.getY(), hitBullet.getVelocity());
         }
 
     }
 
-    private void updateShooting(ScannedRobotEvent event, Point newEnemyPosition) {
+    @Override
+    public void onHitRobot(HitRobotEvent event) {
 
-        enemyPosition = newEnemyPosition;
+        if (isTracking(event.getName())) {
+            fireDetector.onHitRobot();
+        }
 
-        enemyVelocity = event.getVelocity();
+    }
 
-        enemyHeading = event.getHeading();
+    @Override
+    public void onHitByBullet(HitByBulletEvent event) {
 
-        distanceToEnemy = event.getDistance();
+        boolean tracking = isTracking(event.getName());
 
-    }
+        if (tracking) {
+            fireDetector.onHitByBullet(event.getPower());
+            waveSurfer.onBulletHit(getTime(), getX(), getY(), event.getVelocity());
+        }
 
-    private void updateRadar(ScannedRobotEvent event) {
+        // the bullet came from the opposite of its heading, follow it back to
+        // the enemy or, if we don't know where it is, to the wall
+        double length = tracking ? distanceToEnemy : Math.hypot(getBattleFieldWidth(), getBattleFieldHeight());
 
-        double turn = Utils.normalRelativeAngle(getHeading() - getRadarHeading() + event.getBearing());
+        double angle = event.getHeading() + 180;
 
-        turnRadar(turn + Utils.signum(turn) * 20);
+        dangerMap.addDangerAlong(
+            getX(),
+            getY(),
+            MutablePoint.projectX(getX(), angle, length),
+            MutablePoint.projectY(getY(), angle, length),
+            event.getPower() * HIT_DANGER,
+            getTime()
+        );
 
     }
 
-    private void onRobotScannedEvent(ScannedRobotEvent event) {
+    private boolean surf() {
 
-        if (trackingTankName != null && !trackingTankName.equals(event.getName())) {
-            // we are concentrating on tracking another tank
-            // so ignore events from other tanks
-            return;
+        long time = getTime();
+
+        waveSurfer.update(time, getX(), getY());
+
+        TickBudget.Mode mode = getTickBudget().getMode();
+
+        if (mode == TickBudget.Mode.MINIMAL) {
+            // not enough time to surf, hop between the tiles instead
+            return false;
         }
 
-        if (trackingTankName == null) {
-            trackingTankName = event.getName();
+        double angle;
+
+        if (mode == TickBudget.Mode.FULL || time - lastSurfEvaluation >= SURF_REEVALUATION_TICKS) {
+            angle = waveSurfer.surf(time, getX(), getY(), getHeading(), getVelocity());
+            lastSurfEvaluation = time;
+        }
+        else {
+            angle = waveSurfer.keepSurfing(time, getX(), getY());
         }
 
-        // we found the target, so reset the counter
-        lostEnemyCounter = 0;
+        if (Double.isNaN(angle)) {
+            return false;
+        }
 
-        updateRadar(event);
+        // drive backwards if that is the shorter turn
+        double turn = Utils.normalRelativeAngle(angle - getHeading());
 
-        // find the coordinates of the enemy
-        Point myPosition = new Point(getX(), getY());
-        Point newEnemyPosition = calculateEnemyPosition(event);
+        if (Math.abs(turn) > 90) {
+            turn(Utils.normalRelativeAngle(turn + 180));
+            ahead(-WaveSurfer.SURF_DISTANCE);
+        }
+        else {
+            turn(turn);
+            ahead(WaveSurfer.SURF_DISTANCE);
+        }
 
-        updateShooting(event, newEnemyPosition);
+        return true;
 
-        IntPoint myQuad = getRobotQuad(myPosition);
-        IntPoint enemyQuad = getRobotQuad(newEnemyPosition);
+    }
 
-        // System.out.println(myQuad + " " + enemyQuad);
+    private boolean avoidRisk() {
 
-        if (!myQuad.equals(targetQuad) && targetQuad != null) {
-            return;
+        // keep the waves up to date for when only one enemy is left
+        waveSurfer.update(getTime(), getX(), getY());
+
+        enemyIndex.rebuild(registry);
+
+        int candidates;
+
+        switch (getTickBudget().getMode()) {
+            case FULL:
+                candidates = FULL_RISK_CANDIDATES;
+                break;
+            case REDUCED:
+                candidates = REDUCED_RISK_CANDIDATES;
+                break;
+            default:
+                candidates = MINIMAL_RISK_CANDIDATES;
+                break;
         }
 
-        ArrayList<IntPoint> nextQuads = nextQuad(myQuad, enemyQuad);
+        if (!riskMovement.update(getX(), getY(), candidates)) {
+            return false;
+        }
 
-        IntPoint nextQuad;
+        go(riskMovement.getDestinationX(), riskMovement.getDestinationY());
 
-        if (nextQuads.isEmpty()) {
-            // the enemy didn't leave us any choise
-            // so go and get them!!!
+        return true;
 
-            nextQuad = enemyQuad;
+    }
+
+    private void processShooting() {
+
+        double distance = enemyPosition.distance(getX(), getY());
+
+        double firePower = getFirePower(distance, virtualGuns.getRating(bestGun), enemyEnergy);
+
+        double bulletSpeed = getBulletSpeed(firePower);
+
+        double absoluteDegree;
+
+        if (getTicksUntilGunReady() <= FULL_AIM_TICKS) {
+
+            aimGuns(getTickBudget().getMode(), bulletSpeed);
+
+            // head-on is always available, so there is a best gun
+            bestGun = virtualGuns.getBestGun(gunAims);
+
+            absoluteDegree = gunAims[bestGun];
 
         }
         else {
 
-            nextQuad = tileTactic.getNextQuad(nextQuads, this, myQuad, enemyQuad);
-            // nextQuad = nextQuads.get(new Random().nextInt(nextQuads.size()));
+            // the gun is still cooling down, keep it pointed at the enemy
+            aimGuns(TickBudget.Mode.MINIMAL, bulletSpeed);
+
+            absoluteDegree = gunAims[HEAD_ON_GUN];
 
         }
 
-        setTargetQuad(nextQuad);
+        futureX = MutablePoint.projectX(getX(), absoluteDegree, distance);
+        futureY = MutablePoint.projectY(getY(), absoluteDegree, distance);
+
+        turnGun(Utils.normalRelativeAngle(absoluteDegree - getGunHeading()));
+
+        if (firePower != BulletPowerSelector.NO_FIRE && getGunHeat() <= 1e-5 && Math.abs(getGunTurnRemaining()) < 10) {
+
+            fireBullet(firePower);
+
+            registry.onFire(target);
+
+            virtualGuns.fire(getTime(), getX(), getY(), bulletSpeed, gunAims);
+
+        }
 
     }
 
-    private void setTargetQuad(IntPoint targetQuad) {
+    private void aimGuns(TickBudget.Mode mode, double bulletSpeed) {
 
-        this.targetQuad = targetQuad;
+        Arrays.fill(gunAims, Double.NaN);
 
-        targetPosition = getCenterOfQuad(this.targetQuad);
+        gunAims[HEAD_ON_GUN] = MutablePoint.angle(getX(), getY(), enemyPosition.x, enemyPosition.y);
 
-        // System.out.println(targetQuad);
+        if (mode == TickBudget.Mode.MINIMAL) {
+            // not enough time left in this tick, so aim head-on only
+            return;
+        }
+
+        if (interceptSolver.solve(getTime(), getX(), getY(), bulletSpeed, false)) {
+            gunAims[LINEAR_GUN] = MutablePoint.angle(getX(), getY(), interceptSolver.getInterceptX(), interceptSolver.getInterceptY());
+        }
+
+        if (guessFactorGun.hasData()) {
+            gunAims[GUESS_FACTOR_GUN] = guessFactorGun.aim(bulletSpeed);
+        }
+
+        if (mode == TickBudget.Mode.REDUCED) {
+            // the other guns are too expensive
+            return;
+        }
+
+        if (interceptSolver.solve(getTime(), getX(), getY(), bulletSpeed, true)) {
+            gunAims[CIRCULAR_GUN] = MutablePoint.angle(getX(), getY(), interceptSolver.getInterceptX(), interceptSolver.getInterceptY());
+        }
+
+        if (knnGun.hasData()) {
+            gunAims[KNN_GUN] = knnGun.aim(bulletSpeed);
+        }
+
+        if (patternGun.hasMatch()) {
+            gunAims[PATTERN_GUN] = patternGun.aim(getTime(), getX(), getY(), bulletSpeed);
+        }
 
     }
 
-    public void onPaint(Graphics2D g) {
+    private long getTicksUntilGunReady() {
+        // the epsilon accounts for the rounding of the gun heat
+        return (long)Math.ceil((getGunHeat() - 1e-5) / getGunCoolingRate());
+    }
 
-        g.setColor(new Color(0xff, 253, 6, 0x80));
+    private double getFirePower(double distance, double hitRate, double enemyEnergy) {
+        return BulletPowerSelector.select(distance, hitRate, getEnergy(), enemyEnergy, getGunCoolingRate());
+        // return Math.min(500 / distance, 3);
+    }
 
-        for (int y = 0; y < quadLayout.y; y++) {
-            for (int x = 0; x < quadLayout.x; x++) {
+    private static double getBulletSpeed(double firePower) {
+        // 20 and 3 are from the robocode wiki
+        return 20 - firePower * 3;
+    }
 
-                Point center = getCenterOfQuad(new IntPoint(x, y));
+    private void updateShooting(ScannedRobotEvent event) {
 
-                g.fillArc((int)center.getX(), (int)center.getY(), 16, 16, 0, 360);
+        interceptSolver.onScan(getTime(), enemyPosition.x, enemyPosition.y, event.getHeading(), event.getVelocity());
+
+        enemyEnergy = event.getEnergy();
+
+        distanceToEnemy = event.getDistance();
+
+    }
+
+    // feeds a scan to the guns of the scanned enemy, whether it is the target
+    // or not, so they are up to date when it becomes the target
+    private void updateGuns(int enemy, ScannedRobotEvent event) {
+
+        if (enemy >= guessFactorGuns.length) {
+
+            int capacity = Math.max(enemy + 1, guessFactorGuns.length << 1);
+
+            guessFactorGuns = Arrays.copyOf(guessFactorGuns, capacity);
+            knnGuns = Arrays.copyOf(knnGuns, capacity);
+            patternGuns = Arrays.copyOf(patternGuns, capacity);
+            virtualGunsByEnemy = Arrays.copyOf(virtualGunsByEnemy, capacity);
 
-            }
         }
 
-        if (targetPosition != null) {
+        if (guessFactorGuns[enemy] == null) {
 
-            g.setColor(new Color(0xff, 0, 0, 255));
+            String name = registry.getName(enemy);
 
-            g.fillArc((int)targetPosition.getX(), (int)targetPosition.getY(), 16, 16, 0, 360);
+            guessFactorGuns[enemy] = new GuessFactorGun(name);
+            knnGuns[enemy] = new KnnGun(name, getBattleFieldWidth(), getBattleFieldHeight());
+            patternGuns[enemy] = new PatternGun(name, getBattleFieldWidth(), getBattleFieldHeight());
+            virtualGunsByEnemy[enemy] = new VirtualGuns(name, GUNS);
 
         }
 
-        g.setColor(new Color(255, 0, 210, 0x80));
+        long time = getTime();
 
-        g.fillArc((int)futureX, (int)futureY, 15, 15, 0, 360);
+        double x = scannedPosition.x;
+        double y = scannedPosition.y;
+
+        double firePower = getFirePower(event.getDistance(), virtualGunsByEnemy[enemy].getRating(bestGun), event.getEnergy());
+
+        double bulletSpeed = getBulletSpeed(firePower);
+
+        guessFactorGuns[enemy].onScan(time, getX(), getY(), x, y, event.getHeading(), event.getVelocity(), bulletSpeed);
+        knnGuns[enemy].onScan(time, getX(), getY(), x, y, event.getHeading(), event.getVelocity(), bulletSpeed);
+        patternGuns[enemy].onScan(time, x, y, event.getHeading(), event.getVelocity());
+
+        virtualGunsByEnemy[enemy].update(time, x, y);
 
     }
 
-    private Point calculateEnemyPosition(ScannedRobotEvent event) {
+    private void updateDanger(ScannedRobotEvent event) {
+
+        long time = getTime();
+
+        if (fireDetector.onScan(time, event.getEnergy(), event.getVelocity(), enemyPosition.x, enemyPosition.y)) {
+            // assume the enemy aimed head-on
+            dangerMap.addDangerAlong(
+                fireDetector.getOriginX(),
+                fireDetector.getOriginY(),
+                getX(),
+                getY(),
+                fireDetector.getPower() * BULLET_DANGER,
+                time
+            );
+
+            waveSurfer.addWave(
+                fireDetector.getOriginTime(),
+                fireDetector.getOriginX(),
+                fireDetector.getOriginY(),
+                fireDetector.getVelocity(),
+                getX(),
+                getY(),
+                getHeading(),
+                getVelocity()
+            );
+        }
+
+    }
+
+    private boolean isTracking(String name) {
+        return trackingTankName != null && trackingTankName.equals(name);
+    }
+
+    private void onRobotScannedEvent(ScannedRobotEvent event) {
 
-        double angle = Math.toRadians((getHeading() + event.getBearing()) % 360);
+        long time = getTime();
 
-        return new Point(
-            (int)(getX() + Math.sin(angle) * event.getDistance()),
-            (int)(getY() + Math.cos(angle) * event.getDistance())
+        // find the coordinates of the enemy
+        calculateEnemyPosition(event, scannedPosition);
+
+        int enemy = registry.onScan(
+            event.getName(),
+            time,
+            scannedPosition.x,
+            scannedPosition.y,
+            event.getHeading(),
+            event.getVelocity(),
+            event.getEnergy()
         );
 
+        // every enemy makes its surroundings dangerous, not only the target
+        dangerMap.addDangerAround(scannedPosition.x, scannedPosition.y, event.getEnergy() * ENEMY_DANGER, time);
+
+        updateGuns(enemy, event);
+
+        int selected = registry.selectTarget(time, getX(), getY());
+
+        if (selected != target && selected != EnemyRegistry.NONE) {
+            setTarget(selected);
+        }
+
+        if (enemy != target) {
+            // we are concentrating on tracking another tank
+            // so ignore the rest of the events from other tanks
+            return;
+        }
+
+        enemyPosition.set(scannedPosition);
+
+        updateShooting(event);
+
+        updateDanger(event);
+
+        if (getTickBudget().getMode() == TickBudget.Mode.MINIMAL && targetQuad != TileGrid.NO_TILE) {
+            // we are about to skip turns, so keep heading for the current
+            // target instead of planning the next one
+            return;
+        }
+
+        int myQuad = grid.tileAt(getX(), getY());
+        int enemyQuad = grid.tileAt(enemyPosition.x, enemyPosition.y);
+
+        // System.out.println(myQuad + " " + enemyQuad);
+
+        if (myQuad != targetQuad && targetQuad != TileGrid.NO_TILE) {
+            return;
+        }
+
+        int candidates = tileTactic.filterCandidates(this, collectCandidates(myQuad, enemyQuad), myQuad, enemyQuad);
+
+        int nextQuad;
+
+        if (candidates == 0) {
+            // the enemy didn't leave us any choise
+            // so go and get them!!!
+
+            nextQuad = enemyQuad;
+
+        }
+        else {
+
+            nextQuad = tileTactic.chooseTile(this, candidates, myQuad, enemyQuad);
+
+        }
+
+        setTargetQuad(nextQuad);
+
     }
 
-    private IntPoint getRobotQuad(Point robotPosition) {
+    private void setTarget(int enemy) {
 
-        double cellWidth = getBattleFieldWidth() / TileBehaviour.quadLayout.x;
-        double cellHeight = getBattleFieldHeight() / TileBehaviour.quadLayout.y;
+        target = enemy;
+        trackingTankName = registry.getName(enemy);
 
-        return new IntPoint(
-            (int)(robotPosition.getX() / cellWidth),
-            (int)(robotPosition.getY() / cellHeight)
-        );
+        // only enemies that were scanned are selected, so their guns exist
+        guessFactorGun = guessFactorGuns[enemy];
+        knnGun = knnGuns[enemy];
+        patternGun = patternGuns[enemy];
+        virtualGuns = virtualGunsByEnemy[enemy];
+
+        interceptSolver.reset();
+        fireDetector.reset();
+
+        waveSurfer.setOpponent(trackingTankName);
+
+        enemyPosition.set(registry.getX(enemy), registry.getY(enemy));
+        enemyEnergy = registry.getEnergy(enemy);
+        distanceToEnemy = enemyPosition.distance(getX(), getY());
 
     }
 
-    private Point getCenterOfQuad(IntPoint quad) {
+    public TileGrid getGrid() {
+        return grid;
+    }
 
-        int cellWidth = (int)getBattleFieldWidth() / TileBehaviour.quadLayout.x;
-        int cellHeight = (int)getBattleFieldHeight() / TileBehaviour.quadLayout.y;
+    public DangerMap getDangerMap() {
+        return dangerMap;
+    }
 
-        return new Point(
-            quad.x * cellWidth + cellWidth / 2.,
-            quad.y * cellHeight + cellHeight / 2.
-        );
+    private void setTargetQuad(int targetQuad) {
+
+        this.targetQuad = targetQuad;
+
+        targetPosition.set(grid.getSafeCenterX(targetQuad), grid.getSafeCenterY(targetQuad));
+
+        // System.out.println(targetQuad);
 
     }
 
-    private ArrayList<IntPoint> nextQuad(IntPoint myQuad, IntPoint enemyQuad) {
+    public void onPaint(Graphics2D g) {
+
+        g.setColor(new Color(0xff, 253, 6, 0x80));
 
-        ArrayList<IntPoint> possibleQuads = new ArrayList<>();
+        for (int tile = 0; tile < grid.getTileCount(); tile++) {
+            g.fillArc((int)grid.getCenterX(tile), (int)grid.getCenterY(tile), 16, 16, 0, 360);
+        }
 
-        IntPoint diff = myQuad.copy();
-        diff.subtract(enemyQuad);
+        if (targetQuad != TileGrid.NO_TILE) {
 
-        // System.out.println(enemyQuad + " " + quadLayout + " " + myQuad);
+            g.setColor(new Color(0xff, 0, 0, 255));
 
-        {
-            int x = myQuad.x - 1;
-            if (x < 0) x = 0;
+            g.fillArc((int)targetPosition.x, (int)targetPosition.y, 16, 16, 0, 360);
 
-            int startY = myQuad.y - 1;
-            if (startY < 0) startY = 0;
+        }
 
-            int maxX = myQuad.x + 1;
-            if (maxX >= TileBehaviour.quadLayout.x) maxX = TileBehaviour.quadLayout.x - 1;
+        g.setColor(new Color(255, 0, 210, 0x80));
 
-            int maxY = myQuad.y + 1;
-            if (maxY >= TileBehaviour.quadLayout.y) maxY = TileBehaviour.quadLayout.y - 1;
+        g.fillArc((int)futureX, (int)futureY, 15, 15, 0, 360);
 
-            // System.out.println("maxX = " + maxX + " maxY = " + maxY);
+    }
 
-            for (; x <= maxX; x++) {
-                for (int y = startY; y <= maxY; y++) {
+    private void calculateEnemyPosition(ScannedRobotEvent event, MutablePoint result) {
 
-                    IntPoint possibleTarget = new IntPoint(x, y);
+        double angle = (getHeading() + event.getBearing()) % 360;
 
-                    if (possibleTarget.equals(enemyQuad) || possibleTarget.equals(myQuad)) {
-                        continue;
-                    }
+        result.set(
+            (int)MutablePoint.projectX(getX(), angle, event.getDistance()),
+            (int)MutablePoint.projectY(getY(), angle, event.getDistance())
+        );
 
-                    if (possibleTarget.equals(targetQuad)) {
-                        continue;
-                    }
+    }
 
-                    if (tileTactic.acceptAvailableQuad(this, possibleTarget, myQuad, enemyQuad)) {
-                        possibleQuads.add(possibleTarget);
-                    }
+    private int collectCandidates(int myQuad, int enemyQuad) {
 
-                }
-            }
+        // neither the enemy's tile nor the current target are candidates
+        int candidates = grid.getNeighbourMask(myQuad);
 
+        int enemyDirection = grid.directionOf(myQuad, enemyQuad);
+        if (enemyDirection != -1) {
+            candidates &= ~(1 << enemyDirection);
         }
 
-        return possibleQuads;
+        if (targetQuad != TileGrid.NO_TILE) {
+            int targetDirection = grid.directionOf(myQuad, targetQuad);
+            if (targetDirection != -1) {
+                candidates &= ~(1 << targetDirection);
+            }
+        }
+
+        return candidates;
 
     }
 
@@ -341,41 +745,4 @@ public class TileBehaviour extends SimpleRobotBehaviour {
 
     }
 
-    private static double getFutureX(int x, double heading, double velocity, long time) {
-        return x + Math.sin(Math.toRadians(heading)) * velocity * time;
-    }
-
-    private static double getFutureY(int y, double heading, double velocity, long time) {
-        return y + Math.cos(Math.toRadians(heading)) * velocity * time;
-    }
-
-    // computes the absolute bearing between two points
-    private static double absoluteBearing(double x1, double y1, double x2, double y2) {
-
-        double xo = x2-x1;
-        double yo = y2-y1;
-
-        // double hyp = distance(x1, y1, x2, y2);
-        double hyp = Math.hypot(Math.abs(x1 - x2), Math.abs(y1 - y2));
-
-        double arcSin = Math.toDegrees(Math.asin(xo / hyp));
-        double bearing = 0;
-
-        if (xo > 0 && yo > 0) { // both pos: lower-Left
-            bearing = arcSin;
-        }
-        else if (xo < 0 && yo > 0) { // x neg, y pos: lower-right
-            bearing = 360 + arcSin; // arcsin is negative here, actually 360 - ang
-        }
-        else if (xo > 0 && yo < 0) { // x pos, y neg: upper-left
-            bearing = 180 - arcSin;
-        }
-        else if (xo < 0 && yo < 0) { // both neg: upper-right
-            bearing = 180 - arcSin; // arcsin is negative here, actually 180 + ang
-        }
-
-        return bearing;
-
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.IntPoint;
+
+/**
+ * The grid of tiles the battlefield is divided into by {@link TileBehaviour}.
+ * <p>
+ * Tiles are identified by packed {@code int} ids, {@code id = y * columns + x}.
+ * Everything derived from the battlefield size and the layout, i.e. the tile
+ * centres and the neighbours of every tile, is computed once in the
+ * constructor, so looking it up during a tick is a plain array access.
+ * <p>
+ * Grids are obtained through {@link #forBattleField(double, double, double, int, int)},
+ * which keeps the last grid in static state. The battlefield stays the same
+ * during a battle, so the grid is only computed in the first round.
+ * <p>
+ * The up to eight neighbours of a tile are addressed by a direction index
+ * between 0 and 7 and the existing neighbours of a tile are described by a
+ * bitmask over these directions. The directions are ordered column by column,
+ * i.e. by x first and y second.
+ */
+public final class TileGrid {
+
+    /**
+     * The amount of neighbour directions.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * The id used for "no tile".
+     */
+    public static final int NO_TILE = -1;
+
+    private static final int[] DIRECTION_X = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DIRECTION_Y = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    // preferred edge length of a tile when the layout is derived from the
+    // battlefield, this gives the classic 4x3 layout on 800x600
+    private static final double PREFERRED_TILE_SIZE = 200;
+
+    // a tile should be wide enough for the robot to dodge within it
+    private static final double MIN_ROBOTS_PER_TILE = 4;
+
+    // distance kept between the robot's edge and the walls when driving to a
+    // tile centre
+    private static final double WALL_MARGIN = 8;
+
+    private static TileGrid cached = null;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+    private final double robotSize;
+
+    private final int columns;
+    private final int rows;
+
+    private final double cellWidth;
+    private final double cellHeight;
+
+    private final double[] centerX;
+    private final double[] centerY;
+
+    private final double[] safeCenterX;
+    private final double[] safeCenterY;
+
+    // neighbours[tile * DIRECTIONS + direction], NO_TILE outside of the grid
+    private final int[] neighbours;
+
+    private final int[] neighbourMasks;
+
+    private final IntPoint[] points;
+
+    /**
+     * Returns the grid for the given battlefield and layout, reusing the grid
+     * of the previous round if nothing changed.
+     *
+     * @param columns the amount of columns or 0 to derive the layout from the
+     *                battlefield and robot size
+     * @param rows    the amount of rows or 0 to derive the layout from the
+     *                battlefield and robot size
+     */
+    public static TileGrid forBattleField(double battleFieldWidth, double battleFieldHeight, double robotSize, int columns, int rows) {
+
+        if (columns <= 0 || rows <= 0) {
+
+            double tileSize = Math.max(PREFERRED_TILE_SIZE, robotSize * MIN_ROBOTS_PER_TILE);
+
+            columns = deriveTiles(battleFieldWidth, tileSize);
+            rows = deriveTiles(battleFieldHeight, tileSize);
+
+        }
+
+        TileGrid grid = cached;
+
+        if (grid != null &&
+            grid.battleFieldWidth == battleFieldWidth &&
+            grid.battleFieldHeight == battleFieldHeight &&
+            grid.robotSize == robotSize &&
+            grid.columns == columns &&
+            grid.rows == rows) {
+            return grid;
+        }
+
+        grid = new TileGrid(battleFieldWidth, battleFieldHeight, robotSize, columns, rows);
+        cached = grid;
+
+        return grid;
+
+    }
+
+    private static int deriveTiles(double length, double tileSize) {
+
+        int tiles = (int)Math.round(length / tileSize);
+
+        // at least two tiles, otherwise there is nowhere to go
+        return Math.max(tiles, 2);
+
+    }
+
+    private TileGrid(double battleFieldWidth, double battleFieldHeight, double robotSize, int columns, int rows) {
+
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+        this.robotSize = robotSize;
+
+        this.columns = columns;
+        this.rows = rows;
+
+        cellWidth = battleFieldWidth / columns;
+        cellHeight = battleFieldHeight / rows;
+
+        int tiles = columns * rows;
+
+        centerX = new double[tiles];
+        centerY = new double[tiles];
+        safeCenterX = new double[tiles];
+        safeCenterY = new double[tiles];
+        neighbours = new int[tiles * DIRECTIONS];
+        neighbourMasks = new int[tiles];
+        points = new IntPoint[tiles];
+
+        // the centres are aligned to whole pixels
+        int intCellWidth = (int)battleFieldWidth / columns;
+        int intCellHeight = (int)battleFieldHeight / rows;
+
+        double margin = robotSize / 2 + WALL_MARGIN;
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+
+                int tile = y * columns + x;
+
+                centerX[tile] = x * intCellWidth + intCellWidth / 2.;
+                centerY[tile] = y * intCellHeight + intCellHeight / 2.;
+
+                safeCenterX[tile] = clamp(centerX[tile], margin, battleFieldWidth - margin);
+                safeCenterY[tile] = clamp(centerY[tile], margin, battleFieldHeight - margin);
+
+                points[tile] = new IntPoint(x, y);
+
+                int mask = 0;
+
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+
+                    int neighbourX = x + DIRECTION_X[direction];
+                    int neighbourY = y + DIRECTION_Y[direction];
+
+                    if (neighbourX < 0 || neighbourX >= columns || neighbourY < 0 || neighbourY >= rows) {
+                        neighbours[tile * DIRECTIONS + direction] = NO_TILE;
+                        continue;
+                    }
+
+                    neighbours[tile * DIRECTIONS + direction] = neighbourY * columns + neighbourX;
+                    mask |= 1 << direction;
+
+                }
+
+                neighbourMasks[tile] = mask;
+
+            }
+        }
+
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTileCount() {
+        return columns * rows;
+    }
+
+    public double getBattleFieldWidth() {
+        return battleFieldWidth;
+    }
+
+    public double getBattleFieldHeight() {
+        return battleFieldHeight;
+    }
+
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * Returns the tile containing the given position. Positions outside of the
+     * battlefield are mapped to the closest tile.
+     */
+    public int tileAt(double x, double y) {
+
+        int tileX = (int)(x / cellWidth);
+        int tileY = (int)(y / cellHeight);
+
+        if (tileX < 0) tileX = 0;
+        else if (tileX >= columns) tileX = columns - 1;
+
+        if (tileY < 0) tileY = 0;
+        else if (tileY >= rows) tileY = rows - 1;
+
+        return tileY * columns + tileX;
+
+    }
+
+    /**
+     * Returns the id of the tile in the given column and row.
+     */
+    public int tileOf(int tileX, int tileY) {
+        return tileY * columns + tileX;
+    }
+
+    public int getTileX(int tile) {
+        return tile % columns;
+    }
+
+    public int getTileY(int tile) {
+        return tile / columns;
+    }
+
+    public double getCenterX(int tile) {
+        return centerX[tile];
+    }
+
+    public double getCenterY(int tile) {
+        return centerY[tile];
+    }
+
+    /**
+     * Returns the x coordinate of the centre of the given tile, moved away
+     * from the walls far enough for the robot not to hit them.
+     */
+    public double getSafeCenterX(int tile) {
+        return safeCenterX[tile];
+    }
+
+    /**
+     * Returns the y coordinate of the centre of the given tile, moved away
+     * from the walls far enough for the robot not to hit them.
+     */
+    public double getSafeCenterY(int tile) {
+        return safeCenterY[tile];
+    }
+
+    /**
+     * Returns the shared, immutable-by-convention {@link IntPoint} of the given
+     * tile.
+     */
+    public IntPoint getPoint(int tile) {
+        return points[tile];
+    }
+
+    /**
+     * Returns the neighbour of the given tile in the given direction or
+     * {@link #NO_TILE} if it lies outside of the grid.
+     */
+    public int getNeighbour(int tile, int direction) {
+        return neighbours[tile * DIRECTIONS + direction];
+    }
+
+    /**
+     * Returns the bitmask of the directions in which the given tile has a
+     * neighbour.
+     */
+    public int getNeighbourMask(int tile) {
+        return neighbourMasks[tile];
+    }
+
+    /**
+     * Returns the column offset of the given direction, between -1 and 1.
+     */
+    public static int getDirectionX(int direction) {
+        return DIRECTION_X[direction];
+    }
+
+    /**
+     * Returns the row offset of the given direction, between -1 and 1.
+     */
+    public static int getDirectionY(int direction) {
+        return DIRECTION_Y[direction];
+    }
+
+    /**
+     * Returns the direction in which {@code to} neighbours {@code from} or -1
+     * if the tiles are not neighbours.
+     */
+    public int directionOf(int from, int to) {
+
+        int dx = to % columns - from % columns;
+        int dy = to / columns - from / columns;
+
+        if (dx < -1 || dx > 1 || dy < -1 || dy > 1 || (dx == 0 && dy == 0)) {
+            return -1;
+        }
+
+        // inverse of DIRECTION_X and DIRECTION_Y
+        int direction = (dx + 1) * 3 + dy + 1;
+
+        return direction > 4 ? direction - 1 : direction;
+
+    }
+
+}
\ No newline at end of file
@@ -1,3 +1,87 @@
 package net.zerobone.zerorobo.behaviour;
 
-public abstract class TileTactic implements ITileTactic {}
\ No newline at end of file
+import net.zerobone.zerorobo.utils.IntPoint;
+
+import java.util.ArrayList;
+
+/**
+ * Base class of the tile tactics. Tactics implement the bitmask contract of
+ * {@link ITileMaskTactic}; the {@link ITileTactic} methods are adapters on top
+ * of it, so tactics can still be used through the old interface.
+ * <p>
+ * Tactics only written against {@link ITileTactic} can be used with
+ * {@link TileBehaviour} by wrapping them in a {@link TileTacticAdapter}.
+ */
+public abstract class TileTactic implements ITileTactic, ITileMaskTactic {
+
+    @Override
+    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
+
+        TileGrid grid = context.getGrid();
+
+        int myTile = grid.tileOf(myQuad.x, myQuad.y);
+        int enemyTile = grid.tileOf(enemyQuad.x, enemyQuad.y);
+
+        int candidates = 0;
+
+        for (IntPoint quad : availableQuads) {
+
+            int direction = grid.directionOf(myTile, grid.tileOf(quad.x, quad.y));
+
+            if (direction != -1) {
+                candidates |= 1 << direction;
+            }
+
+        }
+
+        if (candidates == 0) {
+            // none of the quads is next to us, so head for the enemy like
+            // TileBehaviour does when it has no choice
+            return enemyQuad;
+        }
+
+        return grid.getPoint(chooseTile(context, candidates, myTile, enemyTile));
+
+    }
+
+    @Override
+    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
+
+        TileGrid grid = context.getGrid();
+
+        int myTile = grid.tileOf(myQuad.x, myQuad.y);
+
+        int direction = grid.directionOf(myTile, grid.tileOf(quad.x, quad.y));
+
+        if (direction == -1) {
+            return false;
+        }
+
+        int candidate = 1 << direction;
+
+        return (filterCandidates(context, candidate, myTile, grid.tileOf(enemyQuad.x, enemyQuad.y)) & candidate) != 0;
+
+    }
+
+    /**
+     * Returns the neighbour in the direction of the lowest candidate bit.
+     */
+    protected static int firstCandidate(TileGrid grid, int candidates, int myTile) {
+        return grid.getNeighbour(myTile, Integer.numberOfTrailingZeros(candidates));
+    }
+
+    /**
+     * Returns the neighbour in the direction of the n-th candidate bit,
+     * counting from the lowest one.
+     */
+    protected static int nthCandidate(TileGrid grid, int candidates, int myTile, int n) {
+
+        for (; n > 0; n--) {
+            candidates &= candidates - 1;
+        }
+
+        return firstCandidate(grid, candidates, myTile);
+
+    }
+
+}
\ No newline at end of file
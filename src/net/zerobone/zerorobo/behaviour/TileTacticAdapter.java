@@ -0,0 +1,76 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.IntPoint;
+
+import java.util.ArrayList;
+
+/**
+ * Makes a tactic only implementing {@link ITileTactic} usable with
+ * {@link TileBehaviour} by translating the bitmask calls into calls of the
+ * old interface.
+ */
+public final class TileTacticAdapter extends TileTactic {
+
+    private final ITileTactic tactic;
+
+    // reused on every call
+    private final ArrayList<IntPoint> availableQuads = new ArrayList<>(TileGrid.DIRECTIONS);
+
+    public TileTacticAdapter(ITileTactic tactic) {
+        this.tactic = tactic;
+    }
+
+    @Override
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+
+        TileGrid grid = context.getGrid();
+
+        IntPoint myQuad = grid.getPoint(myTile);
+        IntPoint enemyQuad = grid.getPoint(enemyTile);
+
+        int accepted = 0;
+
+        for (int remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+
+            int direction = Integer.numberOfTrailingZeros(remaining);
+
+            IntPoint quad = grid.getPoint(grid.getNeighbour(myTile, direction));
+
+            if (tactic.acceptAvailableQuad(context, quad, myQuad, enemyQuad)) {
+                accepted |= 1 << direction;
+            }
+
+        }
+
+        return accepted;
+
+    }
+
+    @Override
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+
+        TileGrid grid = context.getGrid();
+
+        availableQuads.clear();
+
+        for (int remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+            availableQuads.add(grid.getPoint(grid.getNeighbour(myTile, Integer.numberOfTrailingZeros(remaining))));
+        }
+
+        IntPoint next = tactic.getNextQuad(availableQuads, context, grid.getPoint(myTile), grid.getPoint(enemyTile));
+
+        return grid.tileOf(next.x, next.y);
+
+    }
+
+    @Override
+    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
+        return tactic.getNextQuad(availableQuads, context, myQuad, enemyQuad);
+    }
+
+    @Override
+    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
+        return tactic.acceptAvailableQuad(context, quad, myQuad, enemyQuad);
+    }
+
+}
\ No newline at end of file
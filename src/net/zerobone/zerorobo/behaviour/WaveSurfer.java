@@ -0,0 +1,498 @@
+package net.zerobone.zerorobo.behaviour;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.RobotState;
+import net.zerobone.zerorobo.utils.Utils;
+
+import java.util.HashMap;
+
+/**
+ * Tracks the waves of the bullets fired by the enemy and chooses the
+ * direction to move in to avoid them.
+ * <p>
+ * A wave is the circle around the position of the enemy at the time it fired,
+ * growing with the velocity of the bullet. Which part of the wave is dangerous
+ * is learned from the bullets that hit us: the angle at which a bullet hit,
+ * relative to the direct angle and the maximum escape angle, is its guess
+ * factor, and the guess factors of the hits are collected in
+ * {@link #BINS} bins. The bins are kept per opponent and start out with a
+ * small prior for head-on and linear aiming, the guns every robot is most
+ * likely to be hit by before anything has been learned.
+ * <p>
+ * To surf a wave, the position at which it would reach us is predicted for
+ * moving clockwise and counter-clockwise around its origin, and the direction
+ * leading to the less dangerous bin is taken.
+ * <p>
+ * Waves are kept in a fixed pool and ordered in a binary heap by the tick at
+ * which they were expected to reach us when they were fired. Waves are
+ * removed when they have passed us, when they hit us or, starting with the
+ * one that reaches us last, when the pool is full.
+ * The prediction of a direction is bounded by {@link #MAX_PREDICTION_TICKS},
+ * so the cost of a tick is bounded.
+ */
+public final class WaveSurfer {
+
+    /**
+     * The amount of guess factor bins.
+     */
+    public static final int BINS = 47;
+
+    private static final int MIDDLE_BIN = (BINS - 1) / 2;
+
+    // the maximum amount of waves in the air at once, as bullets travel at
+    // least 11 pixels per tick and robots fire at most every 10 ticks this is
+    // more than enough
+    private static final int MAX_WAVES = 32;
+
+    private static final int MAX_PREDICTION_TICKS = 120;
+
+    /**
+     * The distance ordered every tick while surfing.
+     */
+    public static final double SURF_DISTANCE = 100;
+
+    // distance a wave has to have passed us before it is removed
+    private static final double PASSED_DISTANCE = 50;
+
+    // distance kept between the robot's centre and the walls
+    private static final double WALL_MARGIN = 18;
+
+    // length of the stick used to steer away from the walls
+    private static final double WALL_STICK = 160;
+
+    private static final double WALL_SMOOTHING_STEP = 3;
+
+    private static final int MAX_WALL_SMOOTHING_STEPS = 60;
+
+    // weights of the prior hits of a head-on and a linear gun, small enough
+    // for a single real hit to outweigh them
+    private static final double HEAD_ON_PRIOR = .1;
+    private static final double LINEAR_PRIOR = .05;
+
+    // guess factor at which a linear gun hits a robot driving at full speed
+    // around the origin of the wave
+    private static final double LINEAR_GUESS_FACTOR = .8;
+
+    // what is learned about the gun of every opponent, kept for the whole
+    // battle
+    private static final HashMap<String, double[]> statsByOpponent = new HashMap<>();
+
+    // the statistics of the opponent whose bullets are currently tracked
+    private double[] stats = null;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    // the wave pool, indexed by wave
+    private final double[] originX = new double[MAX_WAVES];
+    private final double[] originY = new double[MAX_WAVES];
+    private final long[] fireTime = new long[MAX_WAVES];
+    private final double[] velocity = new double[MAX_WAVES];
+    private final double[] directAngle = new double[MAX_WAVES];
+    private final int[] direction = new int[MAX_WAVES];
+    private final long[] impactTime = new long[MAX_WAVES];
+
+    // the statistics of the opponent that fired the wave
+    private final double[][] waveStats = new double[MAX_WAVES][];
+
+    // heap of the waves by impact time and the position of every wave in it
+    private final int[] heap = new int[MAX_WAVES];
+    private final int[] heapPosition = new int[MAX_WAVES];
+    private int size = 0;
+
+    // unused waves of the pool
+    private final int[] free = new int[MAX_WAVES];
+    private int freeCount;
+
+    // the direction chosen by the last evaluation, 1 is clockwise
+    private int surfDirection = 1;
+
+    private final MovementPredictor predictor;
+
+    // state of the robot used in the prediction
+    private final RobotState predicted = new RobotState();
+
+    public WaveSurfer(double battleFieldWidth, double battleFieldHeight) {
+
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+
+        predictor = new MovementPredictor(battleFieldWidth, battleFieldHeight);
+
+        for (int wave = 0; wave < MAX_WAVES; wave++) {
+            free[wave] = MAX_WAVES - 1 - wave;
+        }
+
+        freeCount = MAX_WAVES;
+
+    }
+
+    /**
+     * Sets the opponent whose bullets are tracked from now on. Must be called
+     * before the first wave is added.
+     */
+    public void setOpponent(String opponent) {
+
+        double[] stats = statsByOpponent.get(opponent);
+
+        if (stats == null) {
+
+            stats = new double[BINS];
+
+            addHit(stats, MIDDLE_BIN, HEAD_ON_PRIOR);
+            addHit(stats, (int)Math.round(LINEAR_GUESS_FACTOR * MIDDLE_BIN) + MIDDLE_BIN, LINEAR_PRIOR);
+
+            statsByOpponent.put(opponent, stats);
+
+        }
+
+        this.stats = stats;
+
+    }
+
+    private static void addHit(double[] stats, int hitBin, double weight) {
+        for (int bin = 0; bin < BINS; bin++) {
+            stats[bin] += weight / ((hitBin - bin) * (hitBin - bin) + 1);
+        }
+    }
+
+    /**
+     * Adds the wave of a bullet fired by the enemy.
+     *
+     * @param myX       our x coordinate at the time the bullet was fired
+     * @param myY       our y coordinate at the time the bullet was fired
+     * @param myHeading our heading at the time the bullet was fired
+     * @param myVelocity our velocity at the time the bullet was fired
+     */
+    public void addWave(long time, double x, double y, double bulletVelocity, double myX, double myY, double myHeading, double myVelocity) {
+
+        if (freeCount == 0) {
+            // drop the wave that reaches us last, there is time to surf it
+            // when it is seen again as one of the earlier waves
+            remove(latestWave());
+        }
+
+        int wave = free[--freeCount];
+
+        double angle = angle(x, y, myX, myY);
+
+        originX[wave] = x;
+        originY[wave] = y;
+        fireTime[wave] = time;
+        velocity[wave] = bulletVelocity;
+        directAngle[wave] = angle;
+        waveStats[wave] = stats;
+
+        // the direction we were moving in around the enemy
+        direction[wave] = myVelocity * Utils.fastSin(myHeading - angle) >= 0 ? 1 : -1;
+
+        impactTime[wave] = time + (long)(MutablePoint.distance(x, y, myX, myY) / bulletVelocity);
+
+        heap[size] = wave;
+        heapPosition[wave] = size;
+        siftUp(size++);
+
+    }
+
+    /**
+     * Removes the waves that have passed the given position.
+     */
+    public void update(long time, double myX, double myY) {
+
+        // the heap is ordered by the expected impact time, so the waves that
+        // passed us are at the top unless we ran towards a later one
+        while (size != 0) {
+
+            int wave = heap[0];
+
+            if (traveled(wave, time) < MutablePoint.distance(originX[wave], originY[wave], myX, myY) + PASSED_DISTANCE) {
+                break;
+            }
+
+            remove(wave);
+
+        }
+
+    }
+
+    /**
+     * Learns from a bullet of the enemy that hit us or our bullet, and removes
+     * its wave.
+     *
+     * @param x the x coordinate of the bullet when it hit
+     * @param y the y coordinate of the bullet when it hit
+     */
+    public void onBulletHit(long time, double x, double y, double bulletVelocity) {
+
+        for (int i = 0; i < size; i++) {
+
+            int wave = heap[i];
+
+            if (Math.abs(velocity[wave] - bulletVelocity) > 1e-3) {
+                continue;
+            }
+
+            if (Math.abs(traveled(wave, time) - MutablePoint.distance(originX[wave], originY[wave], x, y)) > PASSED_DISTANCE) {
+                continue;
+            }
+
+            addHit(waveStats[wave], binFor(wave, x, y), 1);
+
+            remove(wave);
+
+            return;
+
+        }
+
+    }
+
+    /**
+     * Returns the amount of waves in the air.
+     */
+    public int getWaveCount() {
+        return size;
+    }
+
+    /**
+     * Chooses the direction to surf the wave that reaches us next.
+     *
+     * @return the absolute angle in degrees to move in or {@link Double#NaN}
+     *         if there is no wave to surf
+     */
+    public double surf(long time, double myX, double myY, double myHeading, double myVelocity) {
+
+        int wave = closestWave(time, myX, myY);
+
+        if (wave == -1) {
+            return Double.NaN;
+        }
+
+        double dangerCounterClockwise = predictDanger(wave, time, -1, myX, myY, myHeading, myVelocity);
+        double dangerClockwise = predictDanger(wave, time, 1, myX, myY, myHeading, myVelocity);
+
+        if (dangerCounterClockwise == dangerClockwise) {
+            // don't settle into orbiting in one direction, which is what a
+            // linear gun hits
+            surfDirection = Math.random() < .5 ? -1 : 1;
+        }
+        else {
+            surfDirection = dangerCounterClockwise < dangerClockwise ? -1 : 1;
+        }
+
+        return smoothAngle(myX, myY, angle(originX[wave], originY[wave], myX, myY) + surfDirection * 90, surfDirection);
+
+    }
+
+    /**
+     * Returns the absolute angle in degrees to move in to keep surfing the
+     * wave that reaches us next in the direction chosen by the last call of
+     * {@link #surf(long, double, double, double, double)}, without predicting
+     * which direction is safer.
+     *
+     * @return the angle or {@link Double#NaN} if there is no wave to surf
+     */
+    public double keepSurfing(long time, double myX, double myY) {
+
+        int wave = closestWave(time, myX, myY);
+
+        if (wave == -1) {
+            return Double.NaN;
+        }
+
+        return smoothAngle(myX, myY, angle(originX[wave], originY[wave], myX, myY) + surfDirection * 90, surfDirection);
+
+    }
+
+    // the wave that has not reached us yet and is going to reach us first
+    private int closestWave(long time, double myX, double myY) {
+
+        int closest = -1;
+        double closestTicks = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < size; i++) {
+
+            int wave = heap[i];
+
+            double remaining = MutablePoint.distance(originX[wave], originY[wave], myX, myY) - traveled(wave, time);
+
+            if (remaining <= velocity[wave]) {
+                continue;
+            }
+
+            double ticks = remaining / velocity[wave];
+
+            if (ticks < closestTicks) {
+                closestTicks = ticks;
+                closest = wave;
+            }
+
+        }
+
+        return closest;
+
+    }
+
+    private double predictDanger(int wave, long time, int surfDirection, double x, double y, double heading, double velocity) {
+
+        predicted.set(x, y, heading, velocity, time);
+
+        for (int tick = 1; tick <= MAX_PREDICTION_TICKS; tick++) {
+
+            double moveAngle = smoothAngle(
+                predicted.x,
+                predicted.y,
+                angle(originX[wave], originY[wave], predicted.x, predicted.y) + surfDirection * 90,
+                surfDirection
+            );
+
+            predicted.driveTowards(moveAngle, SURF_DISTANCE);
+
+            predictor.tick(predicted);
+
+            if (MutablePoint.distance(originX[wave], originY[wave], predicted.x, predicted.y) < traveled(wave, predicted.time) + this.velocity[wave]) {
+                break;
+            }
+
+        }
+
+        return waveStats[wave][binFor(wave, predicted.x, predicted.y)];
+
+    }
+
+    // turns the given angle away from the walls until a stick of
+    // WALL_STICK pixels in its direction stays within the battlefield
+    private double smoothAngle(double x, double y, double angle, int surfDirection) {
+
+        for (int step = 0; step < MAX_WALL_SMOOTHING_STEPS; step++) {
+
+            double stickX = x + Utils.fastSin(angle) * WALL_STICK;
+            double stickY = y + Utils.fastCos(angle) * WALL_STICK;
+
+            if (stickX >= WALL_MARGIN &&
+                stickY >= WALL_MARGIN &&
+                stickX <= battleFieldWidth - WALL_MARGIN &&
+                stickY <= battleFieldHeight - WALL_MARGIN) {
+                break;
+            }
+
+            angle += surfDirection * WALL_SMOOTHING_STEP;
+
+        }
+
+        return angle;
+
+    }
+
+    private int binFor(int wave, double x, double y) {
+
+        double offset = Utils.normalRelativeAngle(angle(originX[wave], originY[wave], x, y) - directAngle[wave]);
+
+        double maxEscapeAngle = Utils.asin(MovementPredictor.MAX_VELOCITY / velocity[wave]);
+
+        double guessFactor = Math.max(-1, Math.min(offset / maxEscapeAngle, 1)) * direction[wave];
+
+        return (int)Math.round(guessFactor * MIDDLE_BIN) + MIDDLE_BIN;
+
+    }
+
+    // the wave with the latest impact time, which is one of the leaves of
+    // the heap
+    private int latestWave() {
+
+        int latest = heap[size - 1];
+
+        for (int position = size >>> 1; position < size; position++) {
+            if (impactTime[heap[position]] > impactTime[latest]) {
+                latest = heap[position];
+            }
+        }
+
+        return latest;
+
+    }
+
+    private double traveled(int wave, long time) {
+        return (time - fireTime[wave]) * velocity[wave];
+    }
+
+    private void remove(int wave) {
+
+        int position = heapPosition[wave];
+
+        int last = heap[--size];
+
+        if (position != size) {
+
+            heap[position] = last;
+            heapPosition[last] = position;
+
+            siftDown(position);
+            siftUp(heapPosition[last]);
+
+        }
+
+        free[freeCount++] = wave;
+
+    }
+
+    private void siftUp(int position) {
+
+        int wave = heap[position];
+
+        while (position > 0) {
+
+            int parent = (position - 1) >>> 1;
+
+            if (impactTime[heap[parent]] <= impactTime[wave]) {
+                break;
+            }
+
+            heap[position] = heap[parent];
+            heapPosition[heap[position]] = position;
+            position = parent;
+
+        }
+
+        heap[position] = wave;
+        heapPosition[wave] = position;
+
+    }
+
+    private void siftDown(int position) {
+
+        int wave = heap[position];
+
+        while (true) {
+
+            int child = (position << 1) + 1;
+
+            if (child >= size) {
+                break;
+            }
+
+            if (child + 1 < size && impactTime[heap[child + 1]] < impactTime[heap[child]]) {
+                child++;
+            }
+
+            if (impactTime[wave] <= impactTime[heap[child]]) {
+                break;
+            }
+
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+
+        }
+
+        heap[position] = wave;
+        heapPosition[wave] = position;
+
+    }
+
+    @SuppressWarnings("SuspiciousNameCombination")
+    private static double angle(double x1, double y1, double x2, double y2) {
+        return Utils.fastAtan2(x2 - x1, y2 - y1);
+    }
+
+}
\ No newline at end of file
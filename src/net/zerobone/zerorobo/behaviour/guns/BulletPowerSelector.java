@@ -0,0 +1,135 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+/**
+ * Chooses the power of a bullet that maximises the expected score per tick.
+ * <p>
+ * Lighter bullets are faster, which leaves the enemy less room to dodge, and
+ * let the gun cool down sooner, but deal less damage. For every candidate
+ * power the hit probability is estimated from the hit rate of the gun, scaled
+ * by how the maximum escape angle of the bullet and the distance compare to
+ * the typical ones. The expected value of a shot is the damage it deals plus
+ * the energy it wins back on a hit minus the energy it costs, where energy is
+ * weighted by how much we can afford to spend compared to the enemy. This
+ * value is divided by the ticks the gun needs to cool down after the shot.
+ * <p>
+ * The candidate powers are the multiples of 0.1 between 0.1 and 3. Everything
+ * that depends only on the power is looked up from tables computed once, so
+ * a selection costs a few arithmetic operations per candidate.
+ */
+public final class BulletPowerSelector {
+
+    /**
+     * The power returned if it is better not to fire at all.
+     */
+    public static final double NO_FIRE = 0;
+
+    private static final double MIN_POWER = .1;
+    private static final double MAX_POWER = 3;
+
+    private static final int POWERS = 30;
+
+    // the hit rate assumed until the guns have been rated
+    private static final double DEFAULT_HIT_RATE = .12;
+
+    // the hit rates of the guns are measured at about these values
+    private static final double REFERENCE_POWER = 2;
+    private static final double REFERENCE_DISTANCE = 400;
+
+    // how much a point of energy is worth compared to a point of damage while
+    // both robots have the same energy
+    private static final double ENERGY_WEIGHT = .5;
+    private static final double MIN_ENERGY_WEIGHT = .1;
+    private static final double MAX_ENERGY_WEIGHT = 3;
+
+    // energy that is never spent, firing the last of it disables the robot
+    private static final double ENERGY_RESERVE = .1;
+
+    private static final double[] POWER = new double[POWERS];
+    private static final double[] DAMAGE = new double[POWERS];
+    private static final double[] GUN_HEAT = new double[POWERS];
+
+    // the maximum escape angle of the reference power divided by the one of
+    // each power
+    private static final double[] ESCAPE_RATIO = new double[POWERS];
+
+    static {
+
+        double referenceEscapeAngle = WaveTracker.maxEscapeAngle(20 - 3 * REFERENCE_POWER);
+
+        for (int i = 0; i < POWERS; i++) {
+
+            double power = (i + 1) / 10.;
+
+            POWER[i] = power;
+            DAMAGE[i] = 4 * power + (power > 1 ? 2 * (power - 1) : 0);
+            GUN_HEAT[i] = 1 + power / 5;
+            ESCAPE_RATIO[i] = referenceEscapeAngle / WaveTracker.maxEscapeAngle(20 - 3 * power);
+
+        }
+
+    }
+
+    // Hide the default constructor as this class only provides static methods
+    private BulletPowerSelector() {}
+
+    /**
+     * Returns the bullet power with the highest expected score per tick.
+     *
+     * @param distance    the distance to the enemy
+     * @param hitRate     the hit rate of the gun, 0 if not known yet
+     * @param myEnergy    our energy
+     * @param enemyEnergy the energy of the enemy
+     * @param coolingRate the gun cooling rate of the battle
+     * @return the power or {@link #NO_FIRE} if we can't afford to fire
+     */
+    public static double select(double distance, double hitRate, double myEnergy, double enemyEnergy, double coolingRate) {
+
+        if (hitRate <= 0) {
+            hitRate = DEFAULT_HIT_RATE;
+        }
+
+        double maxPower = Math.min(MAX_POWER, myEnergy - ENERGY_RESERVE);
+
+        if (maxPower < MIN_POWER) {
+            return NO_FIRE;
+        }
+
+        double energyWeight = Math.max(MIN_ENERGY_WEIGHT, Math.min(ENERGY_WEIGHT * enemyEnergy / Math.max(myEnergy, 1), MAX_ENERGY_WEIGHT));
+
+        double distanceFactor = REFERENCE_DISTANCE / Math.max(distance, 1);
+
+        // even if no shot is expected to pay off, the weakest one keeps the
+        // guns learning for the price of almost no energy
+        double bestPower = MIN_POWER;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < POWERS && POWER[i] <= maxPower + 1e-9; i++) {
+
+            double hitProbability = Math.min(hitRate * distanceFactor * ESCAPE_RATIO[i], 1);
+
+            // damage beyond the enemy's energy is wasted
+            double damage = Math.min(DAMAGE[i], enemyEnergy);
+
+            double value = hitProbability * (damage + energyWeight * 3 * POWER[i]) - energyWeight * POWER[i];
+
+            double ticks = Math.ceil(GUN_HEAT[i] / coolingRate);
+
+            value /= ticks;
+
+            if (value > bestValue) {
+                bestValue = value;
+                bestPower = POWER[i];
+            }
+
+            if (DAMAGE[i] >= enemyEnergy) {
+                // any stronger bullet would not deal more damage
+                break;
+            }
+
+        }
+
+        return bestPower;
+
+    }
+
+}
\ No newline at end of file
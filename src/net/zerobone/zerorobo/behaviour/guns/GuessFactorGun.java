@@ -0,0 +1,180 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+import java.util.HashMap;
+
+/**
+ * A gun aiming at the guess factor the enemy reached most often in similar
+ * situations.
+ * <p>
+ * Every scan starts a wave from our position, and the guess factors the
+ * enemy reached when the waves passed it are collected in {@link #BINS} bins
+ * for every segment, a segment being the combination of the distance, the
+ * lateral velocity and the acceleration of the enemy when the wave started.
+ * <p>
+ * The statistics of all segments of one opponent are stored in a single flat
+ * {@code float[]} of {@link #STATS_SIZE} entries (under 5 KB) and updated as
+ * rolling averages, so old observations fade out. They are kept per opponent
+ * for the whole battle. Scanning and aiming are linear in the amount of bins
+ * and waves and never allocate.
+ */
+public final class GuessFactorGun implements WaveTracker.Listener {
+
+    /**
+     * The amount of guess factor bins per segment.
+     */
+    public static final int BINS = 25;
+
+    private static final int MIDDLE_BIN = (BINS - 1) / 2;
+
+    private static final int DISTANCE_SEGMENTS = 4;
+    private static final int LATERAL_VELOCITY_SEGMENTS = 4;
+    private static final int ACCELERATION_SEGMENTS = 3;
+
+    private static final double DISTANCE_SEGMENT_SIZE = 250;
+    private static final double LATERAL_VELOCITY_SEGMENT_SIZE = 2;
+
+    /**
+     * The amount of floats stored per opponent.
+     */
+    public static final int STATS_SIZE = DISTANCE_SEGMENTS * LATERAL_VELOCITY_SEGMENTS * ACCELERATION_SEGMENTS * BINS;
+
+    // the amount of observations a rolling average spans
+    private static final float ROLLING_DEPTH = 50;
+
+    // the amount of waves that have to reach the enemy before the gun is
+    // considered to know anything
+    private static final int MIN_OBSERVATIONS = 20;
+
+    // the statistics of the whole battle
+    private static final HashMap<String, float[]> statsByOpponent = new HashMap<>();
+
+    private static final HashMap<String, int[]> observationsByOpponent = new HashMap<>();
+
+    private final float[] stats;
+
+    // observations[0] is the amount of waves that reached the enemy
+    private final int[] observations;
+
+    private final WaveTracker waves = new WaveTracker();
+
+    // the segment of every wave, indexed by wave
+    private final int[] segment = new int[WaveTracker.MAX_WAVES];
+
+    // the situation at the last scan
+    private double lastVelocity = 0;
+    private int lateralDirection = 1;
+    private int currentSegment = 0;
+    private double currentAngle;
+
+    public GuessFactorGun(String opponent) {
+
+        float[] stats = statsByOpponent.get(opponent);
+        int[] observations = observationsByOpponent.get(opponent);
+
+        if (stats == null) {
+            stats = new float[STATS_SIZE];
+            observations = new int[1];
+            statsByOpponent.put(opponent, stats);
+            observationsByOpponent.put(opponent, observations);
+        }
+
+        this.stats = stats;
+        this.observations = observations;
+
+    }
+
+    /**
+     * Updates the gun with a new scan of the enemy: records the guess factors
+     * of the waves that reached the enemy and starts a new wave.
+     *
+     * @param bulletSpeed the speed of the bullet we would fire now
+     */
+    public void onScan(long time, double myX, double myY, double enemyX, double enemyY, double enemyHeading, double enemyVelocity, double bulletSpeed) {
+
+        waves.collect(time, enemyX, enemyY, this);
+
+        double angle = MutablePoint.angle(myX, myY, enemyX, enemyY);
+        double distance = MutablePoint.distance(myX, myY, enemyX, enemyY);
+
+        double lateralVelocity = enemyVelocity * Utils.fastSin(enemyHeading - angle);
+
+        // keep the last direction while the enemy stands still
+        if (lateralVelocity > 0) {
+            lateralDirection = 1;
+        }
+        else if (lateralVelocity < 0) {
+            lateralDirection = -1;
+        }
+
+        int distanceSegment = Math.min((int)(distance / DISTANCE_SEGMENT_SIZE), DISTANCE_SEGMENTS - 1);
+        int lateralVelocitySegment = Math.min((int)(Math.abs(lateralVelocity) / LATERAL_VELOCITY_SEGMENT_SIZE), LATERAL_VELOCITY_SEGMENTS - 1);
+
+        double speed = Math.abs(enemyVelocity);
+        double lastSpeed = Math.abs(lastVelocity);
+        int accelerationSegment = speed < lastSpeed ? 0 : speed == lastSpeed ? 1 : 2;
+
+        lastVelocity = enemyVelocity;
+
+        currentSegment = ((distanceSegment * LATERAL_VELOCITY_SEGMENTS + lateralVelocitySegment) * ACCELERATION_SEGMENTS + accelerationSegment) * BINS;
+        currentAngle = angle;
+
+        int wave = waves.start(time, myX, myY, bulletSpeed, angle, lateralDirection);
+
+        if (wave != -1) {
+            segment[wave] = currentSegment;
+        }
+
+    }
+
+    @Override
+    public void onWaveHit(int wave, double guessFactor) {
+        record(segment[wave], (int)Math.round(guessFactor * MIDDLE_BIN) + MIDDLE_BIN);
+    }
+
+    private void record(int offset, int hitBin) {
+
+        for (int bin = 0; bin < BINS; bin++) {
+
+            float value = 1f / ((hitBin - bin) * (hitBin - bin) + 1);
+
+            stats[offset + bin] = (stats[offset + bin] * ROLLING_DEPTH + value) / (ROLLING_DEPTH + 1);
+
+        }
+
+        observations[0]++;
+
+    }
+
+    /**
+     * Checks whether enough waves have reached the enemy for the gun to aim
+     * better than at random.
+     */
+    public boolean hasData() {
+        return observations[0] >= MIN_OBSERVATIONS;
+    }
+
+    /**
+     * Returns the absolute angle to fire at in the situation of the last scan.
+     *
+     * @param bulletSpeed the speed of the bullet to fire
+     */
+    public double aim(double bulletSpeed) {
+
+        int bestBin = MIDDLE_BIN;
+
+        for (int bin = 0; bin < BINS; bin++) {
+            if (stats[currentSegment + bin] > stats[currentSegment + bestBin]) {
+                bestBin = bin;
+            }
+        }
+
+        double guessFactor = (double)(bestBin - MIDDLE_BIN) / MIDDLE_BIN;
+
+        return currentAngle + lateralDirection * guessFactor * WaveTracker.maxEscapeAngle(bulletSpeed);
+
+    }
+
+}
\ No newline at end of file
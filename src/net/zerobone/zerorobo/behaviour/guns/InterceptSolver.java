@@ -0,0 +1,179 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+/**
+ * Finds the position at which a bullet meets an enemy that keeps moving like
+ * it did at the last scan.
+ * <p>
+ * The turn rate of the enemy is tracked from the headings of consecutive
+ * scans. For circular targeting, the enemy keeps its velocity and turn rate,
+ * for linear targeting only its velocity. The enemy is moved tick by tick from
+ * the time of the last scan and stops when it runs into a wall, until the
+ * bullet has travelled as far as the enemy is away from the gun. The solution
+ * is thus exact to the tick. The iteration is bounded by
+ * {@link #MAX_TICKS} and never allocates.
+ */
+public final class InterceptSolver {
+
+    /**
+     * The maximum amount of ticks the enemy is moved. A bullet crosses a
+     * 1200 pixel diagonal in less than 110 ticks.
+     */
+    public static final int MAX_TICKS = 150;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    private boolean scanned = false;
+
+    private long scanTime;
+    private double scanX;
+    private double scanY;
+    private double scanHeading;
+    private double scanVelocity;
+
+    private double turnRate = 0;
+
+    private double interceptX;
+    private double interceptY;
+    private int interceptTicks;
+
+    public InterceptSolver(double battleFieldWidth, double battleFieldHeight) {
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+    }
+
+    /**
+     * Forgets the last scan, must be called when another enemy is tracked.
+     */
+    public void reset() {
+        scanned = false;
+        turnRate = 0;
+    }
+
+    /**
+     * Updates the motion of the enemy with a new scan.
+     */
+    public void onScan(long time, double x, double y, double heading, double velocity) {
+
+        if (scanned && time > scanTime) {
+
+            double rate = Utils.normalRelativeAngle(heading - scanHeading) / (time - scanTime);
+
+            // the enemy cannot turn faster than the rules allow, anything
+            // beyond is noise from missed scans
+            double maxRate = MovementPredictor.getTurnRate(velocity);
+
+            turnRate = Math.max(-maxRate, Math.min(rate, maxRate));
+
+        }
+
+        scanned = true;
+
+        scanTime = time;
+        scanX = x;
+        scanY = y;
+        scanHeading = heading;
+        scanVelocity = velocity;
+
+    }
+
+    /**
+     * Returns the turn rate of the enemy in degrees per tick.
+     */
+    public double getTurnRate() {
+        return turnRate;
+    }
+
+    /**
+     * Solves the intercept of a bullet fired in the next tick.
+     *
+     * @param time        the current game time
+     * @param fromX       the x coordinate of the gun
+     * @param fromY       the y coordinate of the gun
+     * @param bulletSpeed the speed of the bullet
+     * @param circular    {@code true} to assume the enemy keeps turning,
+     *                    {@code false} for linear motion
+     * @return {@code false} if there is no scan or the bullet does not reach
+     *         the enemy within {@link #MAX_TICKS}, in which case the last
+     *         predicted position is used as the intercept
+     */
+    public boolean solve(long time, double fromX, double fromY, double bulletSpeed, boolean circular) {
+
+        if (!scanned) {
+            return false;
+        }
+
+        double rate = circular ? turnRate : 0;
+
+        double x = scanX;
+        double y = scanY;
+        double heading = scanHeading;
+        double velocity = scanVelocity;
+
+        double minX = MovementPredictor.HALF_ROBOT_SIZE;
+        double minY = MovementPredictor.HALF_ROBOT_SIZE;
+        double maxX = battleFieldWidth - MovementPredictor.HALF_ROBOT_SIZE;
+        double maxY = battleFieldHeight - MovementPredictor.HALF_ROBOT_SIZE;
+
+        // the bullet leaves the gun in the next tick
+        long elapsed = time + 1 - scanTime;
+
+        for (int tick = 1; tick <= MAX_TICKS; tick++) {
+
+            heading += rate;
+
+            x += Utils.fastSin(heading) * velocity;
+            y += Utils.fastCos(heading) * velocity;
+
+            if (x < minX || y < minY || x > maxX || y > maxY) {
+                x = Math.max(minX, Math.min(x, maxX));
+                y = Math.max(minY, Math.min(y, maxY));
+                velocity = 0;
+            }
+
+            long flightTicks = tick - elapsed;
+
+            if (flightTicks > 0 && flightTicks * bulletSpeed >= MutablePoint.distance(fromX, fromY, x, y)) {
+                interceptX = x;
+                interceptY = y;
+                interceptTicks = (int)flightTicks;
+                return true;
+            }
+
+        }
+
+        interceptX = x;
+        interceptY = y;
+        interceptTicks = MAX_TICKS;
+
+        return false;
+
+    }
+
+    /**
+     * Returns the x coordinate of the last solved intercept.
+     */
+    public double getInterceptX() {
+        return interceptX;
+    }
+
+    /**
+     * Returns the y coordinate of the last solved intercept.
+     */
+    public double getInterceptY() {
+        return interceptY;
+    }
+
+    /**
+     * Returns the flight time of the bullet to the last solved intercept in
+     * ticks.
+     */
+    public int getInterceptTicks() {
+        return interceptTicks;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,372 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+/**
+ * A k-d tree of points with a value each, stored in flat arrays.
+ * <p>
+ * Points are kept in the order they were added. A new point is inserted as a
+ * leaf, which costs time in the depth of the tree. When the tree is full, the
+ * oldest quarter of the points is dropped and the tree is rebuilt balanced
+ * from the remaining points. The rebuild takes {@code O(n log n)}, but only
+ * happens every {@code capacity / 4} insertions.
+ * <p>
+ * Nearest neighbour searches visit at most a given amount of nodes, so their
+ * cost is bounded independently of the size and shape of the tree; when the
+ * bound is hit, the result is approximate. Neither inserting nor searching
+ * allocates.
+ */
+public final class KdTree {
+
+    private static final int NONE = -1;
+
+    private final int dimensions;
+    private final int capacity;
+
+    // the coordinates of point i are coordinates[i * dimensions ...]
+    private final double[] coordinates;
+    private final float[] values;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] splitDimension;
+
+    private int root = NONE;
+    private int size = 0;
+
+    // scratch space of the searches and the rebuild
+    private final int[] stack;
+    private final double[] stackBounds;
+    private final int[] order;
+
+    // the result of the last search, a max-heap by distance
+    private final int[] resultPoints;
+    private final double[] resultDistances;
+    private int resultSize = 0;
+
+    /**
+     * @param dimensions    the amount of coordinates of a point
+     * @param capacity      the maximum amount of points
+     * @param maxNeighbours the maximum amount of neighbours searched for
+     */
+    public KdTree(int dimensions, int capacity, int maxNeighbours) {
+
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+
+        coordinates = new double[capacity * dimensions];
+        values = new float[capacity];
+
+        left = new int[capacity];
+        right = new int[capacity];
+        splitDimension = new int[capacity];
+
+        stack = new int[capacity + 1];
+        stackBounds = new double[capacity + 1];
+        order = new int[capacity];
+
+        resultPoints = new int[maxNeighbours];
+        resultDistances = new double[maxNeighbours];
+
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a point, dropping the oldest points if the tree is full.
+     *
+     * @param point the coordinates of the point, starting at {@code offset}
+     * @param value the value of the point
+     */
+    public void add(double[] point, int offset, float value) {
+
+        if (size == capacity) {
+            evictOldest(capacity / 4);
+        }
+
+        int index = size++;
+
+        System.arraycopy(point, offset, coordinates, index * dimensions, dimensions);
+        values[index] = value;
+        left[index] = NONE;
+        right[index] = NONE;
+
+        if (root == NONE) {
+            root = index;
+            splitDimension[index] = 0;
+            return;
+        }
+
+        int node = root;
+
+        while (true) {
+
+            int dimension = splitDimension[node];
+
+            if (point[offset + dimension] < coordinates[node * dimensions + dimension]) {
+
+                if (left[node] == NONE) {
+                    left[node] = index;
+                    break;
+                }
+
+                node = left[node];
+
+            }
+            else {
+
+                if (right[node] == NONE) {
+                    right[node] = index;
+                    break;
+                }
+
+                node = right[node];
+
+            }
+
+        }
+
+        splitDimension[index] = (splitDimension[node] + 1) % dimensions;
+
+    }
+
+    private void evictOldest(int amount) {
+
+        size -= amount;
+
+        System.arraycopy(coordinates, amount * dimensions, coordinates, 0, size * dimensions);
+        System.arraycopy(values, amount, values, 0, size);
+
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        root = build(0, size, 0);
+
+    }
+
+    // builds a balanced subtree from order[from, to) and returns its root
+    private int build(int from, int to, int depth) {
+
+        if (from >= to) {
+            return NONE;
+        }
+
+        int dimension = depth % dimensions;
+        int middle = (from + to) >>> 1;
+
+        select(from, to - 1, middle, dimension);
+
+        int node = order[middle];
+
+        splitDimension[node] = dimension;
+        left[node] = build(from, middle, depth + 1);
+        right[node] = build(middle + 1, to, depth + 1);
+
+        return node;
+
+    }
+
+    // moves the k-th smallest point by the given dimension to order[k]
+    // (quickselect)
+    private void select(int from, int to, int k, int dimension) {
+
+        while (from < to) {
+
+            double pivot = coordinates[order[(from + to) >>> 1] * dimensions + dimension];
+
+            int i = from;
+            int j = to;
+
+            while (i <= j) {
+
+                while (coordinates[order[i] * dimensions + dimension] < pivot) i++;
+                while (coordinates[order[j] * dimensions + dimension] > pivot) j--;
+
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+
+            }
+
+            if (k <= j) {
+                to = j;
+            }
+            else if (k >= i) {
+                from = i;
+            }
+            else {
+                return;
+            }
+
+        }
+
+    }
+
+    /**
+     * Searches the points closest to the given one by the weighted squared
+     * euclidean distance. The result is read with {@link #getResultSize()},
+     * {@link #getResultValue(int)} and {@link #getResultDistance(int)}, in no
+     * particular order.
+     *
+     * @param point      the coordinates of the point, starting at {@code offset}
+     * @param weights    the weight of every dimension
+     * @param neighbours the amount of neighbours to search for, at most the
+     *                   maximum given to the constructor
+     * @param maxVisits  the maximum amount of nodes to visit
+     */
+    public void search(double[] point, int offset, double[] weights, int neighbours, int maxVisits) {
+
+        resultSize = 0;
+
+        if (root == NONE) {
+            return;
+        }
+
+        int stackSize = 0;
+        stack[stackSize] = root;
+        stackBounds[stackSize++] = 0;
+
+        int visits = 0;
+
+        while (stackSize != 0 && visits < maxVisits) {
+
+            int node = stack[--stackSize];
+
+            // the bound is the distance to the splitting plane the subtree lies
+            // behind, neighbours found since it was pushed may rule it out
+            if (resultSize == neighbours && stackBounds[stackSize] >= resultDistances[0]) {
+                continue;
+            }
+
+            visits++;
+
+            double distance = distance(point, offset, weights, node);
+
+            if (resultSize < neighbours) {
+                pushResult(node, distance);
+            }
+            else if (distance < resultDistances[0]) {
+                replaceFarthestResult(node, distance);
+            }
+
+            int dimension = splitDimension[node];
+            double difference = point[offset + dimension] - coordinates[node * dimensions + dimension];
+
+            int near = difference < 0 ? left[node] : right[node];
+            int far = difference < 0 ? right[node] : left[node];
+
+            double planeDistance = difference * difference * weights[dimension];
+
+            // the far side can only contain closer points if the splitting
+            // plane is closer than the farthest neighbour found so far
+            if (far != NONE && (resultSize < neighbours || planeDistance < resultDistances[0])) {
+                stack[stackSize] = far;
+                stackBounds[stackSize++] = planeDistance;
+            }
+
+            // the near side is searched first
+            if (near != NONE) {
+                stack[stackSize] = near;
+                stackBounds[stackSize++] = 0;
+            }
+
+        }
+
+    }
+
+    private double distance(double[] point, int offset, double[] weights, int node) {
+
+        int base = node * dimensions;
+        double distance = 0;
+
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            double difference = point[offset + dimension] - coordinates[base + dimension];
+            distance += difference * difference * weights[dimension];
+        }
+
+        return distance;
+
+    }
+
+    private void pushResult(int node, double distance) {
+
+        int position = resultSize++;
+
+        while (position > 0) {
+
+            int parent = (position - 1) >>> 1;
+
+            if (resultDistances[parent] >= distance) {
+                break;
+            }
+
+            resultPoints[position] = resultPoints[parent];
+            resultDistances[position] = resultDistances[parent];
+            position = parent;
+
+        }
+
+        resultPoints[position] = node;
+        resultDistances[position] = distance;
+
+    }
+
+    private void replaceFarthestResult(int node, double distance) {
+
+        int position = 0;
+
+        while (true) {
+
+            int child = (position << 1) + 1;
+
+            if (child >= resultSize) {
+                break;
+            }
+
+            if (child + 1 < resultSize && resultDistances[child + 1] > resultDistances[child]) {
+                child++;
+            }
+
+            if (resultDistances[child] <= distance) {
+                break;
+            }
+
+            resultPoints[position] = resultPoints[child];
+            resultDistances[position] = resultDistances[child];
+            position = child;
+
+        }
+
+        resultPoints[position] = node;
+        resultDistances[position] = distance;
+
+    }
+
+    /**
+     * Returns the amount of neighbours found by the last search.
+     */
+    public int getResultSize() {
+        return resultSize;
+    }
+
+    /**
+     * Returns the value of the i-th neighbour found by the last search.
+     */
+    public float getResultValue(int i) {
+        return values[resultPoints[i]];
+    }
+
+    /**
+     * Returns the weighted squared distance of the i-th neighbour found by
+     * the last search.
+     */
+    public double getResultDistance(int i) {
+        return resultDistances[i];
+    }
+
+}
\ No newline at end of file
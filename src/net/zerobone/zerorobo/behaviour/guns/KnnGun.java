@@ -0,0 +1,190 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+import java.util.HashMap;
+
+/**
+ * A gun aiming at the guess factor the enemy reached in the most similar past
+ * situations.
+ * <p>
+ * Every scan starts a wave from our position and remembers the situation of
+ * the enemy as a vector of {@link #DIMENSIONS} features: the distance, the
+ * lateral and advancing velocity, the distance to the closest wall and the
+ * time since the enemy last changed its lateral direction. When the wave
+ * reaches the enemy, the situation is stored in a {@link KdTree} together
+ * with the guess factor the enemy reached.
+ * <p>
+ * To aim, the {@link #NEIGHBOURS} nearest situations are searched and the
+ * guess factor with the highest density among their guess factors is chosen.
+ * The search visits at most {@link #MAX_VISITS} nodes, so its cost is bounded
+ * by that many distance computations however large the tree grows. The trees
+ * are kept per opponent for the whole battle and hold at most
+ * {@link #CAPACITY} situations, dropping the oldest ones first.
+ */
+public final class KnnGun implements WaveTracker.Listener {
+
+    /**
+     * The amount of features describing a situation.
+     */
+    public static final int DIMENSIONS = 5;
+
+    /**
+     * The maximum amount of situations stored per opponent.
+     */
+    public static final int CAPACITY = 4000;
+
+    /**
+     * The amount of neighbours the aim is computed from.
+     */
+    public static final int NEIGHBOURS = 24;
+
+    /**
+     * The maximum amount of nodes visited by a search.
+     */
+    public static final int MAX_VISITS = 200;
+
+    private static final double[] WEIGHTS = {1, 4, 2, 1, 2};
+
+    // the features are scaled to about [0, 1] before weighting
+    private static final double DISTANCE_SCALE = 1000;
+    private static final double WALL_DISTANCE_SCALE = 400;
+    private static final double DIRECTION_CHANGE_SCALE = 50;
+
+    // guess factors closer than this support each other when choosing the
+    // most dense one
+    private static final double BANDWIDTH = .1;
+
+    // the situations seen during the whole battle
+    private static final HashMap<String, KdTree> treesByOpponent = new HashMap<>();
+
+    private final KdTree tree;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    private final WaveTracker waves = new WaveTracker();
+
+    // the features of every wave, at wave * DIMENSIONS
+    private final double[] waveFeatures = new double[WaveTracker.MAX_WAVES * DIMENSIONS];
+
+    // the situation at the last scan
+    private final double[] features = new double[DIMENSIONS];
+    private double currentAngle;
+    private int lateralDirection = 1;
+    private long lastDirectionChange = 0;
+
+    public KnnGun(String opponent, double battleFieldWidth, double battleFieldHeight) {
+
+        KdTree tree = treesByOpponent.get(opponent);
+
+        if (tree == null) {
+            tree = new KdTree(DIMENSIONS, CAPACITY, NEIGHBOURS);
+            treesByOpponent.put(opponent, tree);
+        }
+
+        this.tree = tree;
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+
+    }
+
+    /**
+     * Updates the gun with a new scan of the enemy: stores the situations of
+     * the waves that reached the enemy and starts a new wave.
+     *
+     * @param bulletSpeed the speed of the bullet we would fire now
+     */
+    public void onScan(long time, double myX, double myY, double enemyX, double enemyY, double enemyHeading, double enemyVelocity, double bulletSpeed) {
+
+        waves.collect(time, enemyX, enemyY, this);
+
+        double angle = MutablePoint.angle(myX, myY, enemyX, enemyY);
+
+        double lateralVelocity = enemyVelocity * Utils.fastSin(enemyHeading - angle);
+        double advancingVelocity = -enemyVelocity * Utils.fastCos(enemyHeading - angle);
+
+        int direction = lateralVelocity > 0 ? 1 : lateralVelocity < 0 ? -1 : lateralDirection;
+
+        if (direction != lateralDirection) {
+            lateralDirection = direction;
+            lastDirectionChange = time;
+        }
+
+        double wallDistance = Math.min(
+            Math.min(enemyX, battleFieldWidth - enemyX),
+            Math.min(enemyY, battleFieldHeight - enemyY)
+        );
+
+        features[0] = MutablePoint.distance(myX, myY, enemyX, enemyY) / DISTANCE_SCALE;
+        features[1] = Math.abs(lateralVelocity) / 8;
+        features[2] = (advancingVelocity + 8) / 16;
+        features[3] = Math.min(wallDistance / WALL_DISTANCE_SCALE, 1);
+        features[4] = Math.min((time - lastDirectionChange) / DIRECTION_CHANGE_SCALE, 1);
+
+        currentAngle = angle;
+
+        int wave = waves.start(time, myX, myY, bulletSpeed, angle, lateralDirection);
+
+        if (wave != -1) {
+            System.arraycopy(features, 0, waveFeatures, wave * DIMENSIONS, DIMENSIONS);
+        }
+
+    }
+
+    @Override
+    public void onWaveHit(int wave, double guessFactor) {
+        tree.add(waveFeatures, wave * DIMENSIONS, (float)guessFactor);
+    }
+
+    /**
+     * Checks whether enough situations are known for the gun to aim better
+     * than at random.
+     */
+    public boolean hasData() {
+        return tree.size() >= NEIGHBOURS;
+    }
+
+    /**
+     * Returns the absolute angle to fire at in the situation of the last scan.
+     *
+     * @param bulletSpeed the speed of the bullet to fire
+     */
+    public double aim(double bulletSpeed) {
+
+        tree.search(features, 0, WEIGHTS, NEIGHBOURS, MAX_VISITS);
+
+        int found = tree.getResultSize();
+
+        double bestGuessFactor = 0;
+        double bestDensity = -1;
+
+        for (int i = 0; i < found; i++) {
+
+            double guessFactor = tree.getResultValue(i);
+            double density = 0;
+
+            for (int j = 0; j < found; j++) {
+
+                double difference = (tree.getResultValue(j) - guessFactor) / BANDWIDTH;
+
+                // closer situations count more
+                if (difference * difference < 1) {
+                    density += (1 - difference * difference) / (1 + tree.getResultDistance(j));
+                }
+
+            }
+
+            if (density > bestDensity) {
+                bestDensity = density;
+                bestGuessFactor = guessFactor;
+            }
+
+        }
+
+        return currentAngle + lateralDirection * bestGuessFactor * WaveTracker.maxEscapeAngle(bulletSpeed);
+
+    }
+
+}
\ No newline at end of file
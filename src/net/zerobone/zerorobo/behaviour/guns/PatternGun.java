@@ -0,0 +1,219 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+import java.util.HashMap;
+
+/**
+ * A gun assuming that the enemy repeats what it did after the last time it
+ * moved like it does now.
+ * <p>
+ * Every tick of the enemy is encoded as a symbol made of its velocity and its
+ * change of heading, both rounded to whole numbers. The symbols of the whole
+ * battle are fed into a {@link SuffixAutomaton}, which keeps track of the
+ * longest earlier occurrence of the most recent ticks as they are appended.
+ * To aim, the ticks that followed that occurrence are replayed from the
+ * current position of the enemy until the bullet reaches it.
+ * <p>
+ * The history of an opponent is kept for the whole battle, with a separator
+ * between rounds that no match can span. When the history is full, the older
+ * half is dropped and the automaton is rebuilt from the newer half.
+ */
+public final class PatternGun {
+
+    /**
+     * The maximum amount of ticks remembered per opponent.
+     */
+    public static final int MAX_HISTORY = 20000;
+
+    /**
+     * The minimum length of a match in ticks for the gun to aim.
+     */
+    public static final int MIN_MATCH_LENGTH = 16;
+
+    private static final int MAX_VELOCITY = (int)MovementPredictor.MAX_VELOCITY;
+    private static final int MAX_TURN = (int)MovementPredictor.MAX_TURN_RATE;
+
+    private static final int VELOCITIES = 2 * MAX_VELOCITY + 1;
+    private static final int TURNS = 2 * MAX_TURN + 1;
+
+    private static final int SEPARATOR = VELOCITIES * TURNS;
+
+    private static final int ALPHABET_SIZE = SEPARATOR + 1;
+
+    // missed scans are filled with copies of the next tick, but not forever
+    private static final int MAX_FILLED_TICKS = 4;
+
+    private static final HashMap<String, History> historiesByOpponent = new HashMap<>();
+
+    private static final class History {
+
+        final SuffixAutomaton automaton = new SuffixAutomaton(ALPHABET_SIZE, MAX_HISTORY);
+
+        final int[] symbols = new int[MAX_HISTORY];
+
+        void append(int symbol) {
+
+            if (automaton.isFull()) {
+
+                // keep the newer half
+                int keep = MAX_HISTORY / 2;
+                System.arraycopy(symbols, MAX_HISTORY - keep, symbols, 0, keep);
+
+                automaton.clear();
+
+                for (int i = 0; i < keep; i++) {
+                    automaton.append(symbols[i]);
+                }
+
+            }
+
+            symbols[automaton.size()] = symbol;
+            automaton.append(symbol);
+
+        }
+
+    }
+
+    private final History history;
+
+    private final double battleFieldWidth;
+    private final double battleFieldHeight;
+
+    private boolean scanned = false;
+
+    private long scanTime;
+    private double scanX;
+    private double scanY;
+    private double scanHeading;
+
+    public PatternGun(String opponent, double battleFieldWidth, double battleFieldHeight) {
+
+        History history = historiesByOpponent.get(opponent);
+
+        if (history == null) {
+            history = new History();
+            historiesByOpponent.put(opponent, history);
+        }
+        else {
+            // a new round, the movement does not continue where it ended
+            history.append(SEPARATOR);
+        }
+
+        this.history = history;
+        this.battleFieldWidth = battleFieldWidth;
+        this.battleFieldHeight = battleFieldHeight;
+
+    }
+
+    /**
+     * Appends the movement of the enemy since the last scan to the history.
+     */
+    public void onScan(long time, double x, double y, double heading, double velocity) {
+
+        if (scanned && time > scanTime) {
+
+            long ticks = time - scanTime;
+
+            double turn = Utils.normalRelativeAngle(heading - scanHeading) / ticks;
+
+            int symbol = encode(velocity, turn);
+
+            for (long tick = Math.max(0, ticks - MAX_FILLED_TICKS); tick < ticks; tick++) {
+                history.append(symbol);
+            }
+
+        }
+
+        scanned = true;
+
+        scanTime = time;
+        scanX = x;
+        scanY = y;
+        scanHeading = heading;
+
+    }
+
+    private static int encode(double velocity, double turn) {
+
+        int v = (int)Math.round(Math.max(-MAX_VELOCITY, Math.min(velocity, MAX_VELOCITY)));
+        int t = (int)Math.round(Math.max(-MAX_TURN, Math.min(turn, MAX_TURN)));
+
+        return (v + MAX_VELOCITY) * TURNS + t + MAX_TURN;
+
+    }
+
+    /**
+     * Checks whether the recent movement of the enemy matches its history
+     * well enough to aim.
+     */
+    public boolean hasMatch() {
+        return scanned && history.automaton.getMatchLength() >= MIN_MATCH_LENGTH;
+    }
+
+    /**
+     * Returns the length of the current match in ticks.
+     */
+    public int getMatchLength() {
+        return history.automaton.getMatchLength();
+    }
+
+    /**
+     * Returns the absolute angle to fire a bullet in the next tick at, by
+     * replaying the movement that followed the match.
+     *
+     * @return the angle or {@link Double#NaN} if there is no match or the
+     *         history ends before the bullet reaches the enemy
+     */
+    public double aim(long time, double fromX, double fromY, double bulletSpeed) {
+
+        if (!hasMatch()) {
+            return Double.NaN;
+        }
+
+        int[] symbols = history.symbols;
+        int end = history.automaton.size();
+
+        int position = history.automaton.getMatchEnd() + 1;
+
+        double x = scanX;
+        double y = scanY;
+        double heading = scanHeading;
+
+        double minX = MovementPredictor.HALF_ROBOT_SIZE;
+        double minY = MovementPredictor.HALF_ROBOT_SIZE;
+        double maxX = battleFieldWidth - MovementPredictor.HALF_ROBOT_SIZE;
+        double maxY = battleFieldHeight - MovementPredictor.HALF_ROBOT_SIZE;
+
+        // the bullet leaves the gun in the next tick
+        long elapsed = time + 1 - scanTime;
+
+        for (int tick = 1; tick <= InterceptSolver.MAX_TICKS; tick++, position++) {
+
+            if (position >= end || symbols[position] == SEPARATOR) {
+                return Double.NaN;
+            }
+
+            int symbol = symbols[position];
+
+            double velocity = symbol / TURNS - MAX_VELOCITY;
+            heading += symbol % TURNS - MAX_TURN;
+
+            x = Math.max(minX, Math.min(x + Utils.fastSin(heading) * velocity, maxX));
+            y = Math.max(minY, Math.min(y + Utils.fastCos(heading) * velocity, maxY));
+
+            long flightTicks = tick - elapsed;
+
+            if (flightTicks > 0 && flightTicks * bulletSpeed >= MutablePoint.distance(fromX, fromY, x, y)) {
+                return MutablePoint.angle(fromX, fromY, x, y);
+            }
+
+        }
+
+        return Double.NaN;
+
+    }
+
+}
\ No newline at end of file
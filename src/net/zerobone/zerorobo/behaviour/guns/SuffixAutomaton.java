@@ -0,0 +1,264 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import java.util.Arrays;
+
+/**
+ * A suffix automaton over a sequence of int symbols, built incrementally.
+ * <p>
+ * After every appended symbol the automaton knows the longest suffix of the
+ * sequence that also occurred earlier and where that earlier occurrence ended.
+ * Appending a symbol takes amortized constant time.
+ * <p>
+ * The transitions are stored as edges in flat arrays. They are found through
+ * an open addressing hash table keyed by state and symbol, and every state
+ * also keeps a list of its edges for when a state has to be cloned. All
+ * storage is allocated up front for the given maximum length of the sequence.
+ */
+public final class SuffixAutomaton {
+
+    private static final int NONE = -1;
+
+    private final int alphabetSize;
+    private final int maxLength;
+
+    // states
+    private final int[] length;
+    private final int[] link;
+    private final int[] firstEnd;
+    private final int[] firstEdge;
+    private int states;
+
+    // edges
+    private final int[] edgeSymbol;
+    private final int[] edgeTarget;
+    private final int[] nextEdge;
+    private int edges;
+
+    // hash table from state * alphabetSize + symbol to the edge
+    private final int[] tableKeys;
+    private final int[] tableEdges;
+    private final int tableMask;
+
+    private int last;
+    private int size;
+
+    private int matchLength;
+    private int matchEnd;
+
+    /**
+     * @param alphabetSize the amount of different symbols
+     * @param maxLength    the maximum length of the sequence
+     */
+    public SuffixAutomaton(int alphabetSize, int maxLength) {
+
+        this.alphabetSize = alphabetSize;
+        this.maxLength = maxLength;
+
+        // a suffix automaton has less than 2n states and 3n transitions
+        int maxStates = 2 * maxLength + 1;
+        int maxEdges = 3 * maxLength;
+
+        length = new int[maxStates];
+        link = new int[maxStates];
+        firstEnd = new int[maxStates];
+        firstEdge = new int[maxStates];
+
+        edgeSymbol = new int[maxEdges];
+        edgeTarget = new int[maxEdges];
+        nextEdge = new int[maxEdges];
+
+        int tableSize = Integer.highestOneBit(maxEdges * 2 - 1) << 1;
+
+        tableKeys = new int[tableSize];
+        tableEdges = new int[tableSize];
+        tableMask = tableSize - 1;
+
+        clear();
+
+    }
+
+    /**
+     * Removes all symbols.
+     */
+    public void clear() {
+
+        states = 0;
+        edges = 0;
+        size = 0;
+
+        Arrays.fill(tableKeys, NONE);
+
+        last = newState(0, NONE);
+        link[last] = NONE;
+
+        matchLength = 0;
+        matchEnd = NONE;
+
+    }
+
+    /**
+     * Returns the amount of symbols appended since the automaton was last
+     * cleared.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no more symbols can be appended.
+     */
+    public boolean isFull() {
+        return size == maxLength;
+    }
+
+    /**
+     * Returns the length of the longest suffix of the sequence that occurred
+     * earlier in it.
+     */
+    public int getMatchLength() {
+        return matchLength;
+    }
+
+    /**
+     * Returns the position of the last symbol of the first earlier occurrence
+     * of the longest repeated suffix, or -1 if there is none.
+     */
+    public int getMatchEnd() {
+        return matchEnd;
+    }
+
+    /**
+     * Appends a symbol to the sequence.
+     *
+     * @param symbol the symbol between 0 and the alphabet size
+     * @throws IllegalStateException if the automaton is full
+     */
+    public void append(int symbol) {
+
+        if (size == maxLength) {
+            throw new IllegalStateException("The automaton is full.");
+        }
+
+        int position = size++;
+
+        int current = newState(length[last] + 1, position);
+
+        int p = last;
+
+        while (p != NONE && findEdge(p, symbol) == NONE) {
+            addEdge(p, symbol, current);
+            p = link[p];
+        }
+
+        if (p == NONE) {
+            link[current] = 0;
+        }
+        else {
+
+            int q = edgeTarget[findEdge(p, symbol)];
+
+            if (length[p] + 1 == length[q]) {
+                link[current] = q;
+            }
+            else {
+
+                int clone = newState(length[p] + 1, firstEnd[q]);
+
+                for (int edge = firstEdge[q]; edge != NONE; edge = nextEdge[edge]) {
+                    addEdge(clone, edgeSymbol[edge], edgeTarget[edge]);
+                }
+
+                link[clone] = link[q];
+
+                while (p != NONE) {
+
+                    int edge = findEdge(p, symbol);
+
+                    if (edge == NONE || edgeTarget[edge] != q) {
+                        break;
+                    }
+
+                    edgeTarget[edge] = clone;
+                    p = link[p];
+
+                }
+
+                link[q] = clone;
+                link[current] = clone;
+
+            }
+
+        }
+
+        last = current;
+
+        // the suffix link of the whole sequence is its longest suffix that
+        // also ends somewhere else, which is always earlier
+        int match = link[current];
+
+        matchLength = length[match];
+        matchEnd = match == 0 ? NONE : firstEnd[match];
+
+    }
+
+    private int newState(int stateLength, int end) {
+
+        int state = states++;
+
+        length[state] = stateLength;
+        link[state] = NONE;
+        firstEnd[state] = end;
+        firstEdge[state] = NONE;
+
+        return state;
+
+    }
+
+    private int findEdge(int state, int symbol) {
+
+        int key = state * alphabetSize + symbol;
+
+        for (int slot = mix(key) & tableMask; ; slot = (slot + 1) & tableMask) {
+
+            int slotKey = tableKeys[slot];
+
+            if (slotKey == key) {
+                return tableEdges[slot];
+            }
+
+            if (slotKey == NONE) {
+                return NONE;
+            }
+
+        }
+
+    }
+
+    private void addEdge(int state, int symbol, int target) {
+
+        int edge = edges++;
+
+        edgeSymbol[edge] = symbol;
+        edgeTarget[edge] = target;
+        nextEdge[edge] = firstEdge[state];
+        firstEdge[state] = edge;
+
+        int key = state * alphabetSize + symbol;
+
+        int slot = mix(key) & tableMask;
+
+        while (tableKeys[slot] != NONE) {
+            slot = (slot + 1) & tableMask;
+        }
+
+        tableKeys[slot] = key;
+        tableEdges[slot] = edge;
+
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+import java.util.HashMap;
+
+/**
+ * Rates several guns against the same opponent by firing a virtual bullet for
+ * every gun whenever a real bullet is fired.
+ * <p>
+ * Guns are identified by their index. A virtual bullet is resolved when it
+ * has travelled as far as the enemy is away from where it was fired: it hits
+ * if its heading passes within the angular width of the enemy's body. Every
+ * gun's hit rate is kept as a rolling average per opponent for the whole
+ * battle.
+ * <p>
+ * The virtual bullets are kept in a preallocated pool of parallel arrays, the
+ * bullets in flight packed at the front. Resolving costs time in the amount of
+ * bullets in flight and never allocates.
+ */
+public final class VirtualGuns {
+
+    /**
+     * The maximum amount of virtual bullets in flight.
+     */
+    public static final int MAX_BULLETS = 512;
+
+    // the amount of bullets a rolling hit rate spans
+    private static final double ROLLING_DEPTH = 30;
+
+    private static final HashMap<String, double[]> ratingsByOpponent = new HashMap<>();
+
+    private final int guns;
+
+    private final double[] ratings;
+
+    // the pool, bullets [0, count) are in flight
+    private final double[] originX = new double[MAX_BULLETS];
+    private final double[] originY = new double[MAX_BULLETS];
+    private final long[] fireTime = new long[MAX_BULLETS];
+    private final double[] speed = new double[MAX_BULLETS];
+    private final double[] heading = new double[MAX_BULLETS];
+    private final int[] gun = new int[MAX_BULLETS];
+    private int count = 0;
+
+    /**
+     * @param opponent the name of the opponent the guns are rated against
+     * @param guns     the amount of guns
+     */
+    public VirtualGuns(String opponent, int guns) {
+
+        double[] ratings = ratingsByOpponent.get(opponent);
+
+        if (ratings == null) {
+            ratings = new double[guns];
+            ratingsByOpponent.put(opponent, ratings);
+        }
+
+        this.guns = guns;
+        this.ratings = ratings;
+
+    }
+
+    /**
+     * Returns the rolling hit rate of the given gun.
+     */
+    public double getRating(int gun) {
+        return ratings[gun];
+    }
+
+    /**
+     * Returns the available gun with the best hit rate. Ties go to the gun
+     * with the highest index.
+     *
+     * @param aims the angle every gun aims at, {@link Double#NaN} if a gun is
+     *             not available
+     * @return the index of the gun or -1 if no gun is available
+     */
+    public int getBestGun(double[] aims) {
+
+        int best = -1;
+
+        for (int i = 0; i < guns; i++) {
+
+            if (Double.isNaN(aims[i])) {
+                continue;
+            }
+
+            if (best == -1 || ratings[i] >= ratings[best]) {
+                best = i;
+            }
+
+        }
+
+        return best;
+
+    }
+
+    /**
+     * Fires a virtual bullet for every available gun.
+     *
+     * @param aims the angle every gun aims at, {@link Double#NaN} if a gun is
+     *             not available
+     */
+    public void fire(long time, double x, double y, double bulletSpeed, double[] aims) {
+
+        for (int i = 0; i < guns && count < MAX_BULLETS; i++) {
+
+            if (Double.isNaN(aims[i])) {
+                continue;
+            }
+
+            int bullet = count++;
+
+            originX[bullet] = x;
+            originY[bullet] = y;
+            fireTime[bullet] = time;
+            speed[bullet] = bulletSpeed;
+            heading[bullet] = aims[i];
+            gun[bullet] = i;
+
+        }
+
+    }
+
+    /**
+     * Resolves the virtual bullets that reached the enemy at the given
+     * position.
+     */
+    public void update(long time, double enemyX, double enemyY) {
+
+        for (int bullet = 0; bullet < count; ) {
+
+            double distance = MutablePoint.distance(originX[bullet], originY[bullet], enemyX, enemyY);
+
+            if ((time - fireTime[bullet]) * speed[bullet] < distance - MovementPredictor.HALF_ROBOT_SIZE) {
+                bullet++;
+                continue;
+            }
+
+            double offset = Utils.normalRelativeAngle(MutablePoint.angle(originX[bullet], originY[bullet], enemyX, enemyY) - heading[bullet]);
+
+            double width = Math.toDegrees(Math.atan(MovementPredictor.HALF_ROBOT_SIZE / Math.max(distance, MovementPredictor.HALF_ROBOT_SIZE)));
+
+            int i = gun[bullet];
+
+            ratings[i] = (ratings[i] * ROLLING_DEPTH + (Math.abs(offset) <= width ? 1 : 0)) / (ROLLING_DEPTH + 1);
+
+            remove(bullet);
+
+        }
+
+    }
+
+    // moves the last bullet in flight into the given slot
+    private void remove(int bullet) {
+
+        int last = --count;
+
+        originX[bullet] = originX[last];
+        originY[bullet] = originY[last];
+        fireTime[bullet] = fireTime[last];
+        speed[bullet] = speed[last];
+        heading[bullet] = heading[last];
+        gun[bullet] = gun[last];
+
+    }
+
+}
\ No newline at end of file
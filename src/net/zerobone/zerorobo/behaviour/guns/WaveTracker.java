@@ -0,0 +1,136 @@
+package net.zerobone.zerorobo.behaviour.guns;
+
+import net.zerobone.zerorobo.utils.MovementPredictor;
+import net.zerobone.zerorobo.utils.MutablePoint;
+import net.zerobone.zerorobo.utils.Utils;
+
+/**
+ * Tracks the waves of our own, real or imagined, bullets and reports the
+ * guess factor the enemy reached when a wave passes it.
+ * <p>
+ * The guess factor is the angle between the direct angle at the time the wave
+ * started and the position of the enemy when the wave reached it, relative to
+ * the maximum escape angle and in the direction the enemy was moving in. It
+ * lies between -1 and 1.
+ * <p>
+ * Waves are kept in a fixed pool. The index of a wave in the pool is handed
+ * out when it is started, so that guns can keep their own data about the wave
+ * in arrays of {@link #MAX_WAVES} entries.
+ */
+public final class WaveTracker {
+
+    /**
+     * Receives the waves reaching the enemy.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a wave reaches the enemy. The wave is reused after this
+         * method returns.
+         *
+         * @param wave        the index of the wave
+         * @param guessFactor the guess factor the enemy reached
+         */
+        void onWaveHit(int wave, double guessFactor);
+
+    }
+
+    /**
+     * The amount of waves in the pool. A wave is started at most every tick,
+     * and bullets need less than 110 ticks to cross the battlefield.
+     */
+    public static final int MAX_WAVES = 128;
+
+    private final double[] originX = new double[MAX_WAVES];
+    private final double[] originY = new double[MAX_WAVES];
+    private final long[] fireTime = new long[MAX_WAVES];
+    private final double[] bulletSpeed = new double[MAX_WAVES];
+    private final double[] directAngle = new double[MAX_WAVES];
+    private final int[] direction = new int[MAX_WAVES];
+
+    // the waves in the air, in no particular order
+    private final int[] active = new int[MAX_WAVES];
+    private int activeCount = 0;
+
+    private final int[] free = new int[MAX_WAVES];
+    private int freeCount;
+
+    public WaveTracker() {
+
+        for (int wave = 0; wave < MAX_WAVES; wave++) {
+            free[wave] = wave;
+        }
+
+        freeCount = MAX_WAVES;
+
+    }
+
+    /**
+     * Returns the maximum angle in degrees an enemy can move away from the
+     * direct angle while a bullet with the given speed reaches it.
+     */
+    public static double maxEscapeAngle(double bulletSpeed) {
+        return Utils.asin(MovementPredictor.MAX_VELOCITY / bulletSpeed);
+    }
+
+    /**
+     * Starts a wave.
+     *
+     * @param directAngle the absolute angle from the origin to the enemy
+     * @param direction   the direction the enemy is moving in around the
+     *                    origin, 1 for clockwise and -1 otherwise
+     * @return the index of the wave or -1 if the pool is exhausted
+     */
+    public int start(long time, double x, double y, double bulletSpeed, double directAngle, int direction) {
+
+        if (freeCount == 0) {
+            return -1;
+        }
+
+        int wave = free[--freeCount];
+
+        originX[wave] = x;
+        originY[wave] = y;
+        fireTime[wave] = time;
+        this.bulletSpeed[wave] = bulletSpeed;
+        this.directAngle[wave] = directAngle;
+        this.direction[wave] = direction;
+
+        active[activeCount++] = wave;
+
+        return wave;
+
+    }
+
+    /**
+     * Reports and removes all waves that reached the enemy at the given
+     * position.
+     */
+    public void collect(long time, double enemyX, double enemyY, Listener listener) {
+
+        for (int i = 0; i < activeCount; ) {
+
+            int wave = active[i];
+
+            double traveled = (time - fireTime[wave]) * bulletSpeed[wave];
+
+            if (traveled < MutablePoint.distance(originX[wave], originY[wave], enemyX, enemyY)) {
+                i++;
+                continue;
+            }
+
+            double offset = Utils.normalRelativeAngle(MutablePoint.angle(originX[wave], originY[wave], enemyX, enemyY) - directAngle[wave]);
+
+            double guessFactor = Math.max(-1, Math.min(offset / maxEscapeAngle(bulletSpeed[wave]), 1)) * direction[wave];
+
+            // remove by moving the last active wave into its place
+            active[i] = active[--activeCount];
+            free[freeCount++] = wave;
+
+            listener.onWaveHit(wave, guessFactor);
+
+        }
+
+    }
+
+}
\ No newline at end of file
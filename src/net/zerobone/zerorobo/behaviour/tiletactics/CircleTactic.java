@@ -1,29 +1,69 @@
 package net.zerobone.zerorobo.behaviour.tiletactics;
 
 import net.zerobone.zerorobo.behaviour.TileBehaviour;
+import net.zerobone.zerorobo.behaviour.TileGrid;
 import net.zerobone.zerorobo.behaviour.TileTactic;
-import net.zerobone.zerorobo.utils.IntPoint;
-
-import java.util.ArrayList;
 
 public class CircleTactic extends TileTactic {
 
-    @Override
-    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
-        return availableQuads.get(0);
+    // only tiles at most two columns and rows away from the enemy can have a
+    // neighbour diagonal to it
+    private static final int REACH = 2;
+    private static final int SIDE = 2 * REACH + 1;
+
+    // DIAGONAL_DIRECTIONS[(dy + REACH) * SIDE + dx + REACH] is the mask of the
+    // directions leading to a tile diagonal to an enemy dx columns and dy rows
+    // away from the robot's tile
+    private static final int[] DIAGONAL_DIRECTIONS = diagonalDirections();
+
+    private static int[] diagonalDirections() {
+
+        int[] masks = new int[SIDE * SIDE];
+
+        for (int dy = -REACH; dy <= REACH; dy++) {
+            for (int dx = -REACH; dx <= REACH; dx++) {
+
+                int mask = 0;
+
+                for (int direction = 0; direction < TileGrid.DIRECTIONS; direction++) {
+
+                    int diffX = dx - TileGrid.getDirectionX(direction);
+                    int diffY = dy - TileGrid.getDirectionY(direction);
+
+                    if (diffX * diffX == 1 && diffY * diffY == 1) {
+                        mask |= 1 << direction;
+                    }
+
+                }
+
+                masks[(dy + REACH) * SIDE + dx + REACH] = mask;
+
+            }
+        }
+
+        return masks;
+
     }
 
     @Override
-    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
 
-        int diffX = enemyQuad.x - quad.x;
-        int diffY = enemyQuad.y - quad.y;
+        TileGrid grid = context.getGrid();
 
-        if (diffX < 0) diffX = -diffX;
-        if (diffY < 0) diffY = -diffY;
+        int dx = grid.getTileX(enemyTile) - grid.getTileX(myTile);
+        int dy = grid.getTileY(enemyTile) - grid.getTileY(myTile);
 
-        return diffX * diffX + diffY * diffY == 2;
+        if (dx < -REACH || dx > REACH || dy < -REACH || dy > REACH) {
+            return 0;
+        }
 
+        return candidates & DIAGONAL_DIRECTIONS[(dy + REACH) * SIDE + dx + REACH];
+
+    }
+
+    @Override
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return firstCandidate(context.getGrid(), candidates, myTile);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package net.zerobone.zerorobo.behaviour.tiletactics;
+
+import net.zerobone.zerorobo.behaviour.DangerMap;
+import net.zerobone.zerorobo.behaviour.TileBehaviour;
+import net.zerobone.zerorobo.behaviour.TileGrid;
+import net.zerobone.zerorobo.behaviour.TileTactic;
+
+public class LeastDangerTactic extends TileTactic {
+
+    @Override
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return candidates;
+    }
+
+    @Override
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+
+        TileGrid grid = context.getGrid();
+        DangerMap dangerMap = context.getDangerMap();
+        long time = context.getTime();
+
+        int bestTile = TileGrid.NO_TILE;
+        double bestDanger = Double.POSITIVE_INFINITY;
+
+        for (; candidates != 0; candidates &= candidates - 1) {
+
+            int tile = grid.getNeighbour(myTile, Integer.numberOfTrailingZeros(candidates));
+
+            double danger = dangerMap.getDanger(tile, time);
+
+            if (danger < bestDanger) {
+                bestDanger = danger;
+                bestTile = tile;
+            }
+
+        }
+
+        return bestTile;
+
+    }
+
+}
\ No newline at end of file
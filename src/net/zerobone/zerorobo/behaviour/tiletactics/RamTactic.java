@@ -2,20 +2,19 @@ package net.zerobone.zerorobo.behaviour.tiletactics;
 
 import net.zerobone.zerorobo.behaviour.TileBehaviour;
 import net.zerobone.zerorobo.behaviour.TileTactic;
-import net.zerobone.zerorobo.utils.IntPoint;
-
-import java.util.ArrayList;
 
 public class RamTactic extends TileTactic {
 
     @Override
-    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
-        return availableQuads.get(0);
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        // the robot's own tile is never a candidate, so nothing is accepted and
+        // the behaviour heads for the enemy's tile
+        return 0;
     }
 
     @Override
-    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
-        return quad.equals(myQuad);
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return firstCandidate(context.getGrid(), candidates, myTile);
     }
 
 }
\ No newline at end of file
@@ -2,21 +2,21 @@ package net.zerobone.zerorobo.behaviour.tiletactics;
 
 import net.zerobone.zerorobo.behaviour.TileBehaviour;
 import net.zerobone.zerorobo.behaviour.TileTactic;
-import net.zerobone.zerorobo.utils.IntPoint;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 public class RandomTactic extends TileTactic {
 
+    private static final Random random = new Random();
+
     @Override
-    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
-        return availableQuads.get(new Random().nextInt(availableQuads.size()));
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return candidates;
     }
 
     @Override
-    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
-        return true;
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return nthCandidate(context.getGrid(), candidates, myTile, random.nextInt(Integer.bitCount(candidates)));
     }
 
 }
\ No newline at end of file
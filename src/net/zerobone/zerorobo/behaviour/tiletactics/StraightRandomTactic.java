@@ -1,24 +1,40 @@
 package net.zerobone.zerorobo.behaviour.tiletactics;
 
 import net.zerobone.zerorobo.behaviour.TileBehaviour;
+import net.zerobone.zerorobo.behaviour.TileGrid;
 import net.zerobone.zerorobo.behaviour.TileTactic;
-import net.zerobone.zerorobo.utils.IntPoint;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 public class StraightRandomTactic extends TileTactic {
 
-    @Override
-    public IntPoint getNextQuad(ArrayList<IntPoint> availableQuads, TileBehaviour context, IntPoint myQuad, IntPoint enemyQuad) {
-        return availableQuads.get(new Random().nextInt(availableQuads.size()));
+    private static final Random random = new Random();
+
+    // the directions sharing either the column or the row with the robot's tile
+    private static final int STRAIGHT_DIRECTIONS = straightDirections();
+
+    private static int straightDirections() {
+
+        int mask = 0;
+
+        for (int direction = 0; direction < TileGrid.DIRECTIONS; direction++) {
+            if (TileGrid.getDirectionX(direction) == 0 || TileGrid.getDirectionY(direction) == 0) {
+                mask |= 1 << direction;
+            }
+        }
+
+        return mask;
+
     }
 
     @Override
-    public boolean acceptAvailableQuad(TileBehaviour context, IntPoint quad, IntPoint myQuad, IntPoint enemyQuad) {
-
-        return myQuad.x == quad.x || myQuad.y == quad.y;
+    public int filterCandidates(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return candidates & STRAIGHT_DIRECTIONS;
+    }
 
+    @Override
+    public int chooseTile(TileBehaviour context, int candidates, int myTile, int enemyTile) {
+        return nthCandidate(context.getGrid(), candidates, myTile, random.nextInt(Integer.bitCount(candidates)));
     }
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * Maps robocode bullets to their {@link Bullet} wrappers, so that the same
+ * robocode bullet is always represented by the same wrapper instance.
+ * <p>
+ * The cache is an open addressing hash table with linear probing. Bullets
+ * that are no longer active are evicted by {@link #purge(long)} once they
+ * have been inactive for a full tick, which gives the events reporting the
+ * end of a bullet the chance to still resolve to the cached wrapper. Evicted
+ * wrappers are not reused, because the behaviour may still hold on to them.
+ */
+final class BulletCache {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // amount of ticks a bullet has to be inactive before it is evicted
+    private static final long EVICTION_DELAY = 2;
+
+    private static final long ACTIVE = -1;
+
+    private robocode.Bullet[] keys = new robocode.Bullet[INITIAL_CAPACITY];
+
+    private Bullet[] values = new Bullet[INITIAL_CAPACITY];
+
+    private long[] inactiveSince = new long[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    /**
+     * Returns the wrapper of the given robocode bullet, creating it if the
+     * bullet has not been seen before.
+     *
+     * @param bullet the robocode bullet
+     * @return the wrapper of the bullet or {@code null} if the given bullet is
+     *         {@code null}
+     */
+    Bullet wrap(robocode.Bullet bullet) {
+
+        if (bullet == null) {
+            return null;
+        }
+
+        int mask = keys.length - 1;
+        int index = indexFor(bullet, mask);
+
+        while (keys[index] != null) {
+
+            if (keys[index].equals(bullet)) {
+                return values[index];
+            }
+
+            index = (index + 1) & mask;
+
+        }
+
+        if ((size + 1) << 1 > keys.length) {
+            grow();
+            return wrap(bullet);
+        }
+
+        Bullet wrapper = new Bullet(bullet);
+
+        keys[index] = bullet;
+        values[index] = wrapper;
+        inactiveSince[index] = ACTIVE;
+        size++;
+
+        return wrapper;
+
+    }
+
+    /**
+     * Evicts all bullets that have been inactive for long enough. Should be
+     * called once per tick.
+     *
+     * @param time the current game time
+     */
+    void purge(long time) {
+
+        int mask = keys.length - 1;
+        int index = 0;
+
+        while (index < keys.length) {
+
+            robocode.Bullet bullet = keys[index];
+
+            if (bullet == null || bullet.isActive()) {
+                index++;
+                continue;
+            }
+
+            if (inactiveSince[index] == ACTIVE) {
+                inactiveSince[index] = time;
+                index++;
+                continue;
+            }
+
+            if (time - inactiveSince[index] < EVICTION_DELAY) {
+                index++;
+                continue;
+            }
+
+            removeAt(index, mask);
+
+            // the slot has been refilled by the shift, so check it again
+
+        }
+
+    }
+
+    private void removeAt(int index, int mask) {
+
+        // backward shift deletion keeps the probe sequences intact
+        int hole = index;
+        int next = (hole + 1) & mask;
+
+        while (keys[next] != null) {
+
+            int home = indexFor(keys[next], mask);
+
+            // move the entry into the hole if its home slot is not in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                inactiveSince[hole] = inactiveSince[next];
+                hole = next;
+            }
+
+            next = (next + 1) & mask;
+
+        }
+
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+
+    }
+
+    private void grow() {
+
+        robocode.Bullet[] oldKeys = keys;
+        Bullet[] oldValues = values;
+        long[] oldInactiveSince = inactiveSince;
+
+        keys = new robocode.Bullet[oldKeys.length << 1];
+        values = new Bullet[oldKeys.length << 1];
+        inactiveSince = new long[oldKeys.length << 1];
+
+        int mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+
+            if (oldKeys[i] == null) {
+                continue;
+            }
+
+            int index = indexFor(oldKeys[i], mask);
+
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+            inactiveSince[index] = oldInactiveSince[i];
+
+        }
+
+    }
+
+    private static int indexFor(robocode.Bullet bullet, int mask) {
+        int hash = bullet.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
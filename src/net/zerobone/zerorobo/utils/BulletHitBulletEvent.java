@@ -1,7 +1,7 @@
 package net.zerobone.zerorobo.utils;
 
 /**
- * This event is sent to {@link SimpleRobotBehaviour#getBulletHitBulletEvents()}.
+ * This event is sent to {@link EventVisitor#onBulletHitBullet(BulletHitBulletEvent)}.
  * when one of your bullets has hit another bullet.
  *
  * @author Mathew A. Nelson (original)
@@ -10,12 +10,23 @@ package net.zerobone.zerorobo.utils;
 public final class BulletHitBulletEvent {
     private robocode.BulletHitBulletEvent ev;
 
+    private final BulletCache bullets;
+
+    /**
+     * Called by the robot to create a new pooled {@link BulletHitBulletEvent} object.
+     *
+     * @param bullets the cache resolving the bullets of the event
+     */
+    BulletHitBulletEvent(BulletCache bullets) {
+        this.bullets = bullets;
+    }
+
     /**
-     * Called by the game to create a new {@link BulletHitBulletEvent} object.
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal event
      */
-    BulletHitBulletEvent(robocode.BulletHitBulletEvent ev) {
+    void set(robocode.BulletHitBulletEvent ev) {
         this.ev = ev;
     }
 
@@ -25,7 +36,7 @@ public final class BulletHitBulletEvent {
      * @return your bullet
      */
     public Bullet getBullet() {
-        return new Bullet(ev.getBullet());
+        return bullets.wrap(ev.getBullet());
     }
 
     /**
@@ -34,7 +45,7 @@ public final class BulletHitBulletEvent {
      * @return the bullet that was hit
      */
     public Bullet getHitBullet() {
-        return new Bullet(ev.getHitBullet());
+        return bullets.wrap(ev.getHitBullet());
     }
 
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package net.zerobone.zerorobo.utils;
 
 /**
- * This event is returned by {@link SimpleRobotBehaviour#getBulletHitEvents()}
+ * This event is sent to {@link EventVisitor#onBulletHit(BulletHitEvent)}
  * when one of your bullets has hit another robot.
  *
  * @author Mathew A. Nelson (original)
@@ -10,12 +10,23 @@ package net.zerobone.zerorobo.utils;
 public final class BulletHitEvent {
     private robocode.BulletHitEvent ev;
 
+    private final BulletCache bullets;
+
+    /**
+     * Called by the robot to create a new pooled {@link BulletHitEvent} object.
+     *
+     * @param bullets the cache resolving the bullets of the event
+     */
+    BulletHitEvent(BulletCache bullets) {
+        this.bullets = bullets;
+    }
+
     /**
-     * Called by the game to create a new {@link BulletHitEvent} object.
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal event
      */
-    BulletHitEvent(robocode.BulletHitEvent ev) {
+    void set(robocode.BulletHitEvent ev) {
         this.ev = ev;
     }
 
@@ -25,7 +36,7 @@ public final class BulletHitEvent {
      * @return the bullet that hit the robot
      */
     public Bullet getBullet() {
-        return new Bullet(ev.getBullet());
+        return bullets.wrap(ev.getBullet());
     }
 
     /**
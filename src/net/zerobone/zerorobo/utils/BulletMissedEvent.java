@@ -1,7 +1,7 @@
 package net.zerobone.zerorobo.utils;
 
 /**
- * This event is sent to {@link SimpleRobotBehaviour#getBulletMissedEvents()}
+ * This event is sent to {@link EventVisitor#onBulletMissed(BulletMissedEvent)}
  * when one of your bullets has missed, i.e. when the bullet has reached the
  * border of the battlefield.
  *
@@ -11,12 +11,23 @@ package net.zerobone.zerorobo.utils;
 public final class BulletMissedEvent {
     private robocode.BulletMissedEvent ev;
 
+    private final BulletCache bullets;
+
+    /**
+     * Called by the robot to create a new pooled {@link BulletMissedEvent} object.
+     *
+     * @param bullets the cache resolving the bullets of the event
+     */
+    BulletMissedEvent(BulletCache bullets) {
+        this.bullets = bullets;
+    }
+
     /**
-     * Called by the game to create a new {@link BulletMissedEvent} object.
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal Robocode event
      */
-    BulletMissedEvent(robocode.BulletMissedEvent ev) {
+    void set(robocode.BulletMissedEvent ev) {
         this.ev = ev;
     }
 
@@ -26,7 +37,7 @@ public final class BulletMissedEvent {
      * @return the bullet that missed
      */
     public Bullet getBullet() {
-        return new Bullet(ev.getBullet());
+        return bullets.wrap(ev.getBullet());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * Decides the movement orders of a robot during a prediction of
+ * {@link MovementPredictor}.
+ */
+@FunctionalInterface
+public interface DrivePolicy {
+
+    /**
+     * Called before every predicted tick to update the orders of the robot,
+     * i.e. {@link RobotState#turnRemaining}, {@link RobotState#distanceRemaining}
+     * and {@link RobotState#maxVelocity}. The orders are kept if the policy
+     * does not change them, just like in robocode.
+     *
+     * @param state the predicted state of the robot
+     */
+    void drive(RobotState state);
+
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package net.zerobone.zerorobo.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * A reusable, pre-sized FIFO ring buffer used by {@link SimpleRobot} to queue
+ * up events between two ticks until they are delivered by
+ * {@link SimpleRobotBehaviour#dispatchEvents(EventVisitor)}.
+ * <p>
+ * The buffer never allocates on the tick path: elements are stored in a
+ * power-of-two sized array and are removed one by one with {@link #poll()}.
+ * <p>
+ * The elements themselves are pooled as well. Every slot of the buffer is
+ * filled with an element created by the factory given to the constructor,
+ * and {@link #append()} hands out the element of the next free slot to be
+ * overwritten. Consequently an element returned by {@link #poll()} is only
+ * valid until the slot is reused, which for the event queues is the next
+ * tick.
+ * <p>
+ * The buffer only grows if more events arrive during a single tick than it
+ * can hold, which does not happen during a regular battle.
+ *
+ * @param <T> the type of the queued events
+ */
+public final class EventRingBuffer<T> {
+
+    private final Supplier<T> factory;
+
+    private Object[] elements;
+
+    private int mask;
+
+    private int head = 0;
+
+    private int size = 0;
+
+    /**
+     * Creates a new, empty ring buffer that can hold at least the given amount
+     * of elements without growing.
+     *
+     * @param capacity the initial capacity of the buffer
+     * @param factory  creates the pooled elements of the buffer
+     */
+    public EventRingBuffer(int capacity, Supplier<T> factory) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the buffer must be positive.");
+        }
+
+        int powerOfTwo = Integer.highestOneBit(capacity);
+        if (powerOfTwo < capacity) {
+            powerOfTwo <<= 1;
+        }
+
+        this.factory = factory;
+
+        elements = new Object[powerOfTwo];
+        mask = powerOfTwo - 1;
+
+        for (int i = 0; i < powerOfTwo; i++) {
+            elements[i] = factory.get();
+        }
+
+    }
+
+    /**
+     * Appends a pooled element to the end of the buffer and returns it, so
+     * that the caller can overwrite its contents.
+     *
+     * @return the appended element, which still holds its previous contents
+     */
+    @SuppressWarnings("unchecked")
+    public T append() {
+
+        if (size == elements.length) {
+            grow();
+        }
+
+        T element = (T)elements[(head + size) & mask];
+        size++;
+
+        return element;
+
+    }
+
+    /**
+     * Removes and returns the first element of the buffer.
+     *
+     * @return the first element of the buffer or {@code null} if the buffer is
+     *         empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+
+        if (size == 0) {
+            return null;
+        }
+
+        T element = (T)elements[head];
+
+        head = (head + 1) & mask;
+        size--;
+
+        return element;
+
+    }
+
+    /**
+     * Returns the first element of the buffer without removing it.
+     *
+     * @return the first element of the buffer or {@code null} if the buffer is
+     *         empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T)elements[head];
+    }
+
+    /**
+     * Returns the amount of elements currently in the buffer.
+     *
+     * @return the amount of elements currently in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the buffer is empty.
+     *
+     * @return {@code true} if the buffer contains no elements;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all elements from the buffer.
+     */
+    public void clear() {
+
+        head = 0;
+        size = 0;
+
+    }
+
+    private void grow() {
+
+        Object[] grown = new Object[elements.length << 1];
+
+        for (int i = 0; i < elements.length; i++) {
+            grown[i] = elements[(head + i) & mask];
+        }
+
+        for (int i = elements.length; i < grown.length; i++) {
+            grown[i] = factory.get();
+        }
+
+        elements = grown;
+        mask = grown.length - 1;
+        head = 0;
+
+    }
+
+}
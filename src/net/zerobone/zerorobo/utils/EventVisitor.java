@@ -0,0 +1,95 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * Receives the events of a tick from
+ * {@link SimpleRobotBehaviour#dispatchEvents(EventVisitor)}.
+ * <p>
+ * The events are delivered in the order of their default robocode priority,
+ * highest priority first:
+ * <ol>
+ * <li>{@link #onSkippedTurn(SkippedTurnEvent)}</li>
+ * <li>{@link #onRobotDeath(RobotDeathEvent)}</li>
+ * <li>{@link #onBulletMissed(BulletMissedEvent)}</li>
+ * <li>{@link #onBulletHitBullet(BulletHitBulletEvent)}</li>
+ * <li>{@link #onBulletHit(BulletHitEvent)}</li>
+ * <li>{@link #onHitRobot(HitRobotEvent)}</li>
+ * <li>{@link #onHitWall(HitWallEvent)}</li>
+ * <li>{@link #onHitByBullet(HitByBulletEvent)}</li>
+ * <li>{@link #onScanned(ScannedRobotEvent)}</li>
+ * </ol>
+ * Events of the same kind are delivered in the order they arrived. All
+ * methods do nothing by default, so only the events of interest have to be
+ * overridden.
+ * <p>
+ * The event objects are pooled by the robot and reused for the events of the
+ * next tick, so they must not be stored beyond the current tick. Copy the
+ * values of interest instead. The {@link Bullet}s returned by the events are
+ * not pooled in this way: the same robocode bullet always maps to the same
+ * {@link Bullet} instance while it is in flight.
+ */
+public interface EventVisitor {
+
+    /**
+     * Called when your robot has skipped a turn.
+     *
+     * @param event the event
+     */
+    default void onSkippedTurn(SkippedTurnEvent event) {}
+
+    /**
+     * Called when another robot dies.
+     *
+     * @param event the event
+     */
+    default void onRobotDeath(RobotDeathEvent event) {}
+
+    /**
+     * Called when one of your bullets has missed.
+     *
+     * @param event the event
+     */
+    default void onBulletMissed(BulletMissedEvent event) {}
+
+    /**
+     * Called when one of your bullets has hit another bullet.
+     *
+     * @param event the event
+     */
+    default void onBulletHitBullet(BulletHitBulletEvent event) {}
+
+    /**
+     * Called when one of your bullets has hit another robot.
+     *
+     * @param event the event
+     */
+    default void onBulletHit(BulletHitEvent event) {}
+
+    /**
+     * Called when your robot collides with another robot.
+     *
+     * @param event the event
+     */
+    default void onHitRobot(HitRobotEvent event) {}
+
+    /**
+     * Called when your robot collides with a wall.
+     *
+     * @param event the event
+     */
+    default void onHitWall(HitWallEvent event) {}
+
+    /**
+     * Called when your robot has been hit by a bullet.
+     *
+     * @param event the event
+     */
+    default void onHitByBullet(HitByBulletEvent event) {}
+
+    /**
+     * Called when your robot scans another robot.
+     *
+     * @param event the event
+     */
+    default void onScanned(ScannedRobotEvent event) {}
+
+}
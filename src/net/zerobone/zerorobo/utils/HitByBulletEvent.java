@@ -2,7 +2,7 @@ package net.zerobone.zerorobo.utils;
 
 /**
  * A net.zerobone.zerorobo.utils.HitByBulletEvent is sent to
- * {@link SimpleRobotBehaviour#getHitByBulletEvents()} when your robot has been
+ * {@link EventVisitor#onHitByBullet(HitByBulletEvent)} when your robot has been
  * hit by a bullet. You can use the information contained in this event to
  * determine what to do.
  *
@@ -12,12 +12,23 @@ package net.zerobone.zerorobo.utils;
 public final class HitByBulletEvent {
     private robocode.HitByBulletEvent ev;
 
+    private final BulletCache bullets;
+
+    /**
+     * Called by the robot to create a new pooled {@link HitByBulletEvent} object.
+     *
+     * @param bullets the cache resolving the bullets of the event
+     */
+    HitByBulletEvent(BulletCache bullets) {
+        this.bullets = bullets;
+    }
+
     /**
-     * Called by the game to create a new {@link HitByBulletEvent} object.
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal Robocode event
      */
-    HitByBulletEvent(robocode.HitByBulletEvent ev) {
+    void set(robocode.HitByBulletEvent ev) {
         this.ev = ev;
     }
 
@@ -41,7 +52,7 @@ public final class HitByBulletEvent {
      * @return the bullet that hit your robot
      */
     public Bullet getBullet() {
-        return new Bullet(ev.getBullet());
+        return bullets.wrap(ev.getBullet());
     }
 
     /**
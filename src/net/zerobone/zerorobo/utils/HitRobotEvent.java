@@ -1,7 +1,7 @@
 package net.zerobone.zerorobo.utils;
 
 /**
- * A net.zerobone.zerorobo.utils.HitRobotEvent is sent to {@link SimpleRobotBehaviour#getHitRobotEvents()}
+ * A net.zerobone.zerorobo.utils.HitRobotEvent is sent to {@link EventVisitor#onHitRobot(HitRobotEvent)}
  * when your robot collides with another robot.
  * You can use the information contained in this event to determine what to do.
  *
@@ -13,11 +13,16 @@ public final class HitRobotEvent {
     private robocode.HitRobotEvent ev;
 
     /**
-     * Called by the game to create a new {@link HitRobotEvent} object.
+     * Called by the robot to create a new pooled {@link HitRobotEvent} object.
+     */
+    HitRobotEvent() {}
+
+    /**
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal Robocode event
      */
-    HitRobotEvent(robocode.HitRobotEvent ev) {
+    void set(robocode.HitRobotEvent ev) {
         this.ev = ev;
     }
 
@@ -1,7 +1,7 @@
 package net.zerobone.zerorobo.utils;
 
 /**
- * A net.zerobone.zerorobo.utils.HitWallEvent is sent to {@link SimpleRobotBehaviour#getHitWallEvents()}
+ * A net.zerobone.zerorobo.utils.HitWallEvent is sent to {@link EventVisitor#onHitWall(HitWallEvent)}
  * when you collide a wall.
  * You can use the information contained in this event to determine what to do.
  *
@@ -12,11 +12,16 @@ public final class HitWallEvent {
     private robocode.HitWallEvent ev;
 
     /**
-     * Called by the game to create a new {@link HitWallEvent} object.
+     * Called by the robot to create a new pooled {@link HitWallEvent} object.
+     */
+    HitWallEvent() {}
+
+    /**
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal Robocode event.
      */
-    HitWallEvent(robocode.HitWallEvent ev) {
+    void set(robocode.HitWallEvent ev) {
         this.ev = ev;
     }
 
@@ -1,7 +1,5 @@
 package net.zerobone.zerorobo.utils;
 
-import java.util.Objects;
-
 public class IntPoint {
 
     public int x;
@@ -42,7 +40,7 @@ public class IntPoint {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 
     @Override
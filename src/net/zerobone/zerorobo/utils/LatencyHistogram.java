@@ -0,0 +1,152 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * A fixed-size histogram of latencies in nanoseconds, in the spirit of an HDR
+ * histogram.
+ * <p>
+ * Values below 32 are counted exactly. Above that, every power of two is split
+ * into 16 linear sub-buckets, so every recorded value is known with a relative
+ * error of at most 1/16. Values above {@link #MAX_VALUE} (about 18 minutes) are
+ * clamped. Recording never allocates.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The largest value that can be recorded without being clamped.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >> 1;
+
+    private static final int BUCKETS = indexFor(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long totalCount = 0;
+
+    private long max = 0;
+
+    /**
+     * Records the given value.
+     *
+     * @param value the value to record in nanoseconds, negative values are
+     *              recorded as 0
+     */
+    public void record(long value) {
+
+        if (value < 0) {
+            value = 0;
+        }
+        else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        counts[indexFor(value)]++;
+        totalCount++;
+
+        if (value > max) {
+            max = value;
+        }
+
+    }
+
+    /**
+     * Returns the amount of values recorded.
+     *
+     * @return the amount of values recorded
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return the largest value recorded or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value at the given percentile. The returned value is the
+     * upper bound of the bucket containing the percentile, but never more than
+     * {@link #getMax()}.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value at the given percentile or 0 if nothing has been
+     *         recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = (long)Math.ceil(percentile / 100 * totalCount);
+        if (countAtPercentile < 1) {
+            countAtPercentile = 1;
+        }
+
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+
+            count += counts[i];
+
+            if (count >= countAtPercentile) {
+                return Math.min(upperBoundOf(i), max);
+            }
+
+        }
+
+        return max;
+
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+
+        totalCount = 0;
+        max = 0;
+
+    }
+
+    private static int indexFor(long value) {
+
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+
+        // shift the value so that it lies in [HALF_SUB_BUCKETS, SUB_BUCKETS)
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int)(value >> shift) - HALF_SUB_BUCKETS;
+
+    }
+
+    private static long upperBoundOf(int index) {
+
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int offset = index - SUB_BUCKETS;
+        int shift = offset / HALF_SUB_BUCKETS + 1;
+        long subBucket = offset % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+        return ((subBucket + 1) << shift) - 1;
+
+    }
+
+}
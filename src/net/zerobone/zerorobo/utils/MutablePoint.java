@@ -0,0 +1,415 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * A mutable vector in two dimensional space over doubles.
+ *
+ * This is the allocation-free counterpart of {@link Point} and follows the same conventions: angles are measured from
+ * the ordinate axis in a clockwise manner, may be negative and are in degrees. All operations modify the vector in
+ * place and return it, so they can be chained. Unlike {@link Point}, the coordinates are not checked to be finite.
+ *
+ * The static methods provide the same operations on primitive coordinates for code that does not want to hold a
+ * vector at all.
+ *
+ * @see Point
+ */
+public final class MutablePoint {
+
+    /**
+     * The x coordinate of the vector.
+     */
+    public double x;
+
+    /**
+     * The y coordinate of the vector.
+     */
+    public double y;
+
+    /**
+     * Creates a new null vector.
+     */
+    public MutablePoint() {}
+
+    /**
+     * Creates a new vector from given x and y coordinates.
+     *
+     * @param x The x coordinate of the newly constructed vector.
+     * @param y The y coordinate of the newly constructed vector.
+     */
+    public MutablePoint(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the x coordinate of the vector.
+     *
+     * @return The x coordinate of the vector.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the vector.
+     *
+     * @return The y coordinate of the vector.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Sets the coordinates of this vector.
+     *
+     * @param x The new x coordinate.
+     * @param y The new y coordinate.
+     * @return  This vector.
+     */
+    public MutablePoint set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Sets the coordinates of this vector to the ones of the given vector.
+     *
+     * @param other The vector to copy the coordinates from.
+     * @return      This vector.
+     */
+    public MutablePoint set(MutablePoint other) {
+        x = other.x;
+        y = other.y;
+        return this;
+    }
+
+    /**
+     * Sets the coordinates of this vector to the ones of the given vector.
+     *
+     * @param other The vector to copy the coordinates from.
+     * @return      This vector.
+     */
+    public MutablePoint set(Point other) {
+        x = other.getX();
+        y = other.getY();
+        return this;
+    }
+
+    /**
+     * Sets this vector from its orientation and length.
+     *
+     * @param phi    The orientation of the vector, measured from the y-axis, in degrees.
+     * @param length The length of the vector.
+     * @return       This vector.
+     */
+    public MutablePoint setPolar(double phi, double length) {
+        phi = Math.toRadians(phi);
+        x = Math.sin(phi) * length;
+        y = Math.cos(phi) * length;
+        return this;
+    }
+
+    /**
+     * Adds the given x and y values to this vector.
+     *
+     * @param x The value to add to the x-coordinate.
+     * @param y The value to add to the y-coordinate.
+     * @return  This vector.
+     */
+    public MutablePoint add(double x, double y) {
+        this.x += x;
+        this.y += y;
+        return this;
+    }
+
+    /**
+     * Adds the given vector to this vector.
+     *
+     * @param other The vector to add to this one.
+     * @return      This vector.
+     */
+    public MutablePoint add(MutablePoint other) {
+        x += other.x;
+        y += other.y;
+        return this;
+    }
+
+    /**
+     * Adds a vector given by its orientation and length to this vector, i.e. moves this position by the given
+     * distance into the given direction.
+     *
+     * @param phi    The orientation of the vector to add, measured from the y-axis, in degrees.
+     * @param length The length of the vector to add.
+     * @return       This vector.
+     */
+    public MutablePoint addPolar(double phi, double length) {
+        phi = Math.toRadians(phi);
+        x += Math.sin(phi) * length;
+        y += Math.cos(phi) * length;
+        return this;
+    }
+
+    /**
+     * Subtracts the given x and y values from this vector.
+     *
+     * @param x The value to subtract from the x-coordinate.
+     * @param y The value to subtract from the y-coordinate.
+     * @return  This vector.
+     */
+    public MutablePoint subtract(double x, double y) {
+        this.x -= x;
+        this.y -= y;
+        return this;
+    }
+
+    /**
+     * Subtracts the given vector from this one.
+     *
+     * @param other The vector to subtract from this one.
+     * @return      This vector.
+     */
+    public MutablePoint subtract(MutablePoint other) {
+        x -= other.x;
+        y -= other.y;
+        return this;
+    }
+
+    /**
+     * Multiplies this vector by the given scalar.
+     *
+     * @param scalar The scalar by which to multiply.
+     * @return       This vector.
+     */
+    public MutablePoint multiply(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        return this;
+    }
+
+    /**
+     * Returns the length of the vector.
+     *
+     * @return The length of the vector.
+     */
+    public double length() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Returns the square of the length of the vector.
+     *
+     * @return The square of the length of the vector.
+     * @see Point#lengthSquared()
+     */
+    public double lengthSquared() {
+        return x * x + y * y;
+    }
+
+    /**
+     * Normalizes this vector to length one.
+     *
+     * @return This vector.
+     */
+    public MutablePoint normalize() {
+        double len = length();
+        if (len == 0) {
+            throw new IllegalStateException("Cannot normalize a null vector.");
+        }
+
+        return multiply(1 / len);
+    }
+
+    /**
+     * Scales this vector to the specified length, keeping its orientation.
+     *
+     * @param desiredLength The length the vector should have.
+     * @return              This vector.
+     */
+    public MutablePoint setLength(double desiredLength) {
+        double len = length();
+        if (len == 0) {
+            if (desiredLength == 0) {
+                return this;
+            }
+
+            throw new IllegalStateException("Cannot create a null vector of non-zero length.");
+        }
+
+        return multiply(desiredLength / len);
+    }
+
+    /**
+     * Returns the angle between the y-axis and this vector in degrees.
+     *
+     * @return The angle between the y-axis and this vector in degrees.
+     */
+    @SuppressWarnings("SuspiciousNameCombination")
+    public double angle() {
+        return Math.toDegrees(Math.atan2(x, y));
+    }
+
+    /**
+     * Returns the angle between this vector and the one specified by the given coordinates in degrees.
+     *
+     * @param x The x-coordinate of the vector to which to measure the angle to.
+     * @param y The y-coordinate of the vector to which to measure the angle to.
+     * @return  The angle between the vectors in degrees.
+     */
+    public double angleFrom(double x, double y) {
+        return Math.toDegrees(Math.atan2(this.x - x, this.y - y));
+    }
+
+    /**
+     * Returns the angle between this vector and the given one in degrees.
+     *
+     * @param other The vector to which to measure the angle to.
+     * @return      The angle between the vectors in degrees.
+     */
+    public double angleFrom(MutablePoint other) {
+        return Math.toDegrees(Math.atan2(x - other.x, y - other.y));
+    }
+
+    /**
+     * Returns the dot product between this vector and the one given as a parameter.
+     *
+     * @param other The other vector in the dot product.
+     * @return      The dot product in double precision.
+     */
+    public double dotProduct(MutablePoint other) {
+        return x * other.x + y * other.y;
+    }
+
+    /**
+     * Returns the distance between this vector and the given coordinates.
+     *
+     * @param x The x-coordinate to calculate the distance to.
+     * @param y The y-coordinate to calculate the distance to.
+     * @return  The distance between this vector and the given coordinates.
+     */
+    public double distance(double x, double y) {
+        return distance(this.x, this.y, x, y);
+    }
+
+    /**
+     * Returns the distance between this vector and the given one.
+     *
+     * @param other the vector to calculate the distance to
+     * @return the distance between this vector and the given one
+     */
+    public double distance(MutablePoint other) {
+        return distance(x, y, other.x, other.y);
+    }
+
+    /**
+     * Returns the square of the distance between this vector and the given one.
+     *
+     * @param other the vector to calculate the distance to
+     * @return the square of the distance between this vector and the given one
+     * @see Point#distanceSq(Point)
+     */
+    public double distanceSq(MutablePoint other) {
+        return distanceSq(x, y, other.x, other.y);
+    }
+
+    /**
+     * Returns an immutable copy of this vector.
+     *
+     * @return An immutable copy of this vector.
+     */
+    public Point toPoint() {
+        return new Point(x, y);
+    }
+
+    /**
+     * Returns a string representation of this vector.
+     *
+     * @return A string representation of this vector.
+     */
+    @Override
+    public String toString() {
+        return "<" + x + ", " + y + '>';
+    }
+
+    /**
+     * Returns the length of the vector given by its coordinates.
+     *
+     * @param x The x coordinate of the vector.
+     * @param y The y coordinate of the vector.
+     * @return  The length of the vector.
+     */
+    public static double length(double x, double y) {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Returns the distance between two positions.
+     *
+     * @param x1 The x coordinate of the first position.
+     * @param y1 The y coordinate of the first position.
+     * @param x2 The x coordinate of the second position.
+     * @param y2 The y coordinate of the second position.
+     * @return   The distance between the positions.
+     */
+    public static double distance(double x1, double y1, double x2, double y2) {
+        double xDiff = x1 - x2;
+        double yDiff = y1 - y2;
+        return Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+    }
+
+    /**
+     * Returns the square of the distance between two positions.
+     *
+     * @param x1 The x coordinate of the first position.
+     * @param y1 The y coordinate of the first position.
+     * @param x2 The x coordinate of the second position.
+     * @param y2 The y coordinate of the second position.
+     * @return   The square of the distance between the positions.
+     */
+    public static double distanceSq(double x1, double y1, double x2, double y2) {
+        double xDiff = x1 - x2;
+        double yDiff = y1 - y2;
+        return xDiff * xDiff + yDiff * yDiff;
+    }
+
+    /**
+     * Returns the angle between the y-axis and the vector from the first position to the second one in degrees,
+     * i.e. the absolute bearing from the first position to the second one.
+     *
+     * @param x1 The x coordinate of the first position.
+     * @param y1 The y coordinate of the first position.
+     * @param x2 The x coordinate of the second position.
+     * @param y2 The y coordinate of the second position.
+     * @return   The angle in degrees in the range from -180 to 180.
+     */
+    @SuppressWarnings("SuspiciousNameCombination")
+    public static double angle(double x1, double y1, double x2, double y2) {
+        return Math.toDegrees(Math.atan2(x2 - x1, y2 - y1));
+    }
+
+    /**
+     * Returns the x coordinate of the position reached by moving from the given x coordinate by the given distance
+     * into the given direction.
+     *
+     * @param x      The x coordinate to start from.
+     * @param phi    The direction, measured from the y-axis, in degrees.
+     * @param length The distance to move.
+     * @return       The x coordinate of the reached position.
+     */
+    public static double projectX(double x, double phi, double length) {
+        return x + Math.sin(Math.toRadians(phi)) * length;
+    }
+
+    /**
+     * Returns the y coordinate of the position reached by moving from the given y coordinate by the given distance
+     * into the given direction.
+     *
+     * @param y      The y coordinate to start from.
+     * @param phi    The direction, measured from the y-axis, in degrees.
+     * @param length The distance to move.
+     * @return       The y coordinate of the reached position.
+     */
+    public static double projectY(double y, double phi, double length) {
+        return y + Math.cos(Math.toRadians(phi)) * length;
+    }
+
+}
@@ -0,0 +1,37 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * A net.zerobone.zerorobo.utils.RobotDeathEvent is sent to
+ * {@link EventVisitor#onRobotDeath(RobotDeathEvent)} when another robot
+ * (not your robot) dies.
+ *
+ * @author Mathew A. Nelson (original)
+ * @author Flemming N. Larsen (contributor)
+ */
+public final class RobotDeathEvent {
+    private robocode.RobotDeathEvent ev;
+
+    /**
+     * Called by the robot to create a new pooled {@link RobotDeathEvent} object.
+     */
+    RobotDeathEvent() {}
+
+    /**
+     * Called by the robot to reuse this object for a new event.
+     *
+     * @param ev the internal Robocode event
+     */
+    void set(robocode.RobotDeathEvent ev) {
+        this.ev = ev;
+    }
+
+    /**
+     * Returns the name of the robot that died.
+     *
+     * @return the name of the robot that died
+     */
+    public String getName() {
+        return ev.getName();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * The movement state of a robot as seen by {@link MovementPredictor}.
+ * <p>
+ * Besides the position, heading and velocity, the state holds the movement
+ * orders of the robot, i.e. the remaining turn and distance as set by
+ * {@link SimpleRobotBehaviour#turn(double)} and
+ * {@link SimpleRobotBehaviour#ahead(double)}. A {@link DrivePolicy} changes
+ * the orders every tick of a prediction.
+ * <p>
+ * All fields are public and mutable, so that one state can be reused for any
+ * amount of predictions without allocating.
+ */
+public final class RobotState {
+
+    /**
+     * The x coordinate of the centre of the robot.
+     */
+    public double x;
+
+    /**
+     * The y coordinate of the centre of the robot.
+     */
+    public double y;
+
+    /**
+     * The heading of the robot in degrees, in the range from 0 to 360.
+     */
+    public double heading;
+
+    /**
+     * The velocity of the robot in pixels per tick, negative when driving
+     * backwards.
+     */
+    public double velocity;
+
+    /**
+     * The game time the state describes.
+     */
+    public long time;
+
+    /**
+     * The remaining turn in degrees, positive values turn to the right.
+     */
+    public double turnRemaining;
+
+    /**
+     * The remaining distance to drive in pixels, negative values drive
+     * backwards.
+     */
+    public double distanceRemaining;
+
+    /**
+     * The maximum velocity the robot may drive with, see
+     * {@link robocode.AdvancedRobot#setMaxVelocity(double)}.
+     */
+    public double maxVelocity = MovementPredictor.MAX_VELOCITY;
+
+    /**
+     * Sets the position, heading, velocity and time of this state and clears
+     * the orders.
+     *
+     * @param x        the x coordinate of the robot
+     * @param y        the y coordinate of the robot
+     * @param heading  the heading of the robot in degrees
+     * @param velocity the velocity of the robot
+     * @param time     the game time of the state
+     * @return this state
+     */
+    public RobotState set(double x, double y, double heading, double velocity, long time) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.velocity = velocity;
+        this.time = time;
+        turnRemaining = 0;
+        distanceRemaining = 0;
+        maxVelocity = MovementPredictor.MAX_VELOCITY;
+        return this;
+    }
+
+    /**
+     * Copies the given state into this one.
+     *
+     * @param other the state to copy
+     * @return this state
+     */
+    public RobotState set(RobotState other) {
+        x = other.x;
+        y = other.y;
+        heading = other.heading;
+        velocity = other.velocity;
+        time = other.time;
+        turnRemaining = other.turnRemaining;
+        distanceRemaining = other.distanceRemaining;
+        maxVelocity = other.maxVelocity;
+        return this;
+    }
+
+    /**
+     * Sets the orders so that the robot drives towards the given absolute
+     * angle, driving backwards if that needs the shorter turn.
+     *
+     * @param angle    the absolute angle in degrees to drive in
+     * @param distance the distance to drive
+     */
+    public void driveTowards(double angle, double distance) {
+
+        double turn = Utils.normalRelativeAngle(angle - heading);
+
+        if (Math.abs(turn) > 90) {
+            turnRemaining = Utils.normalRelativeAngle(turn + 180);
+            distanceRemaining = -distance;
+        }
+        else {
+            turnRemaining = turn;
+            distanceRemaining = distance;
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return "RobotState{x=" + x + ", y=" + y + ", heading=" + heading + ", velocity=" + velocity + ", time=" + time + '}';
+    }
+
+}
\ No newline at end of file
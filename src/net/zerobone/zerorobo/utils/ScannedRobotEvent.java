@@ -2,7 +2,7 @@ package net.zerobone.zerorobo.utils;
 
 /**
  * A net.zerobone.zerorobo.utils.ScannedRobotEvent is sent to
- * {@link SimpleRobotBehaviour#getScannedRobotEvents()} when you scan a robot.
+ * {@link EventVisitor#onScanned(ScannedRobotEvent)} when you scan a robot.
  * You can use the information contained in this event to determine what to do.
  *
  * @author Mathew A. Nelson (original)
@@ -12,11 +12,16 @@ public final class ScannedRobotEvent {
     private robocode.ScannedRobotEvent ev;
 
     /**
-     * Called by the game to create a new {@link ScannedRobotEvent} object.
+     * Called by the robot to create a new pooled {@link ScannedRobotEvent} object.
+     */
+    ScannedRobotEvent() {}
+
+    /**
+     * Called by the robot to reuse this object for a new event.
      *
      * @param ev the internal Robocode event
      */
-    ScannedRobotEvent(robocode.ScannedRobotEvent ev) {
+    void set(robocode.ScannedRobotEvent ev) {
         this.ev = ev;
     }
 
@@ -1,13 +1,24 @@
 package net.zerobone.zerorobo.utils;
 
 import robocode.AdvancedRobot;
-import java.util.LinkedList;
-import java.util.Queue;
+import robocode.RobocodeFileOutputStream;
+import robocode.RobotStatus;
+import robocode.RoundEndedEvent;
+import robocode.StatusEvent;
+
+import java.io.IOException;
+import java.io.PrintStream;
 
 /**
  * This class represents a robot that can fight in a Robocode match. Its actual
  * behavior is defined by a {@link SimpleRobotBehaviour}. Inherit from this class
  * and set the member {@link #behaviour} to use it.
+ * <p>
+ * Robocode creates a new robot instance, and with it a new behaviour, at the
+ * start of every round, but loads the robot's classes only once per battle.
+ * Everything that should be learned over the whole battle, like statistics
+ * about the enemies or the profile of the ticks, is therefore kept in static
+ * fields, while instance fields only live for one round.
  */
 public abstract class SimpleRobot extends AdvancedRobot {
 
@@ -17,13 +28,39 @@ public abstract class SimpleRobot extends AdvancedRobot {
      */
     protected SimpleRobotBehaviour behaviour = null;
 
-    Queue<BulletHitBulletEvent> bulletHitBulletEventQueue = new LinkedList<>();
-    Queue<BulletHitEvent> bulletHitEventQueue = new LinkedList<>();
-    Queue<BulletMissedEvent> bulletMissedEventQueue = new LinkedList<>();
-    Queue<HitByBulletEvent> hitByBulletEventQueue = new LinkedList<>();
-    Queue<HitRobotEvent> hitRobotEventQueue = new LinkedList<>();
-    Queue<HitWallEvent> hitWallEventQueue = new LinkedList<>();
-    Queue<ScannedRobotEvent> scannedRobotEventQueue = new LinkedList<>();
+    // initial capacities of the event queues, chosen so that they never have
+    // to grow during a regular battle
+    private static final int SCAN_QUEUE_CAPACITY = 32;
+    private static final int EVENT_QUEUE_CAPACITY = 8;
+
+    // status snapshot of the current tick, null until the first tick
+    RobotStatus status = null;
+
+    // constant during a round, so they are read once in run()
+    double battleFieldWidth;
+    double battleFieldHeight;
+    double robotWidth;
+    double robotHeight;
+    double gunCoolingRate;
+
+    final BulletCache bulletCache = new BulletCache();
+
+    final TickBudget tickBudget = new TickBudget();
+
+    // collects the latencies of the whole battle
+    static final TickProfiler profiler = new TickProfiler();
+
+    private final int tickPhase = profiler.register(TickProfiler.TICK_PHASE);
+
+    final EventRingBuffer<BulletHitBulletEvent> bulletHitBulletEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, () -> new BulletHitBulletEvent(bulletCache));
+    final EventRingBuffer<BulletHitEvent> bulletHitEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, () -> new BulletHitEvent(bulletCache));
+    final EventRingBuffer<BulletMissedEvent> bulletMissedEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, () -> new BulletMissedEvent(bulletCache));
+    final EventRingBuffer<HitByBulletEvent> hitByBulletEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, () -> new HitByBulletEvent(bulletCache));
+    final EventRingBuffer<HitRobotEvent> hitRobotEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, HitRobotEvent::new);
+    final EventRingBuffer<HitWallEvent> hitWallEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, HitWallEvent::new);
+    final EventRingBuffer<RobotDeathEvent> robotDeathEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, RobotDeathEvent::new);
+    final EventRingBuffer<SkippedTurnEvent> skippedTurnEventQueue = new EventRingBuffer<>(EVENT_QUEUE_CAPACITY, SkippedTurnEvent::new);
+    final EventRingBuffer<ScannedRobotEvent> scannedRobotEventQueue = new EventRingBuffer<>(SCAN_QUEUE_CAPACITY, ScannedRobotEvent::new);
 
     @Override
     public void run() {
@@ -32,48 +69,86 @@ public abstract class SimpleRobot extends AdvancedRobot {
         setAdjustRadarForGunTurn(true);
         setAdjustRadarForRobotTurn(true);
 
+        battleFieldWidth = getBattleFieldWidth();
+        battleFieldHeight = getBattleFieldHeight();
+        robotWidth = getWidth();
+        robotHeight = getHeight();
+        gunCoolingRate = getGunCoolingRate();
+
         behaviour.start();
         execute();
 
         while (true) {
+            tickBudget.startTick();
+            bulletCache.purge(getTime());
             behaviour.execute();
+            tickBudget.endTick(getTime());
+            profiler.record(tickPhase, tickBudget.getLastWallNanos());
             execute();
         }
 
     }
 
+    @Override
+    public void onStatus(StatusEvent e) {
+        status = e.getStatus();
+    }
+
+    @Override
+    public void onRoundEnded(RoundEndedEvent e) {
+
+        try (PrintStream stream = new PrintStream(new RobocodeFileOutputStream(getDataFile(TickProfiler.FILE_NAME)))) {
+            profiler.write(stream);
+        }
+        catch (IOException ex) {
+            out.println("Could not write the tick profile: " + ex.getMessage());
+        }
+
+    }
+
+    @Override
+    public void onSkippedTurn(robocode.SkippedTurnEvent ex) {
+        tickBudget.onSkippedTurn(ex.getSkippedTurn());
+        skippedTurnEventQueue.append().set(ex);
+    }
+
+    @Override
+    public void onRobotDeath(robocode.RobotDeathEvent ex) {
+        robotDeathEventQueue.append().set(ex);
+    }
+
     @Override
     public void onBulletHitBullet(robocode.BulletHitBulletEvent ex) {
-        bulletHitBulletEventQueue.add(new BulletHitBulletEvent(ex));
+        bulletHitBulletEventQueue.append().set(ex);
     }
 
     @Override
     public void onBulletHit(robocode.BulletHitEvent ex) {
-        bulletHitEventQueue.add(new BulletHitEvent(ex));
+        bulletHitEventQueue.append().set(ex);
     }
 
     @Override
     public void onBulletMissed(robocode.BulletMissedEvent ex) {
-        bulletMissedEventQueue.add(new BulletMissedEvent(ex));
+        bulletMissedEventQueue.append().set(ex);
     }
 
     @Override
     public void onHitByBullet(robocode.HitByBulletEvent ex) {
-        hitByBulletEventQueue.add(new HitByBulletEvent(ex));
+        hitByBulletEventQueue.append().set(ex);
     }
 
     @Override
     public void onHitRobot(robocode.HitRobotEvent ex) {
-        hitRobotEventQueue.add(new HitRobotEvent(ex));
+        hitRobotEventQueue.append().set(ex);
     }
 
     @Override
     public void onHitWall(robocode.HitWallEvent ex) {
-        hitWallEventQueue.add(new HitWallEvent(ex));
+        hitWallEventQueue.append().set(ex);
     }
 
     @Override
     public void onScannedRobot(robocode.ScannedRobotEvent ex) {
-        scannedRobotEventQueue.add(new ScannedRobotEvent(ex));
+        scannedRobotEventQueue.append().set(ex);
     }
 }
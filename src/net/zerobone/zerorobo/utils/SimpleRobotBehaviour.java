@@ -1,10 +1,8 @@
 package net.zerobone.zerorobo.utils;
 
+import robocode.RobotStatus;
+
 import java.awt.*;
-import java.util.LinkedList;
-import java.util.Vector;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This class provides methods to control the actions of a robot. To implement
@@ -15,6 +13,12 @@ import java.util.stream.Stream;
  * {@link #execute()} method is called once each tick and should be used to
  * implement an actual behavior. All actions will be queued up and executed when
  * the method returns.
+ * <p>
+ * All getters describing the state of the robot are served from the status
+ * snapshot robocode hands to the robot at the beginning of each tick, so all
+ * decisions made during one tick see the same, consistent state. The size of
+ * the battlefield and of the robot and the gun cooling rate are read once per
+ * round.
  */
 public abstract class SimpleRobotBehaviour {
 
@@ -54,7 +58,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarTurnRemaining() getRadarTurnRemaining()
      */
     public final double getDistanceRemaining() {
-        return robot.getDistanceRemaining();
+        RobotStatus status = robot.status;
+        return status != null ? status.getDistanceRemaining() : robot.getDistanceRemaining();
     }
 
     /**
@@ -69,7 +74,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarHeading()
      */
     public final double getGunHeading() {
-        return robot.getGunHeading();
+        RobotStatus status = robot.status;
+        return status != null ? status.getGunHeading() : robot.getGunHeading();
     }
 
     /**
@@ -86,7 +92,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarTurnRemaining() getRadarTurnRemaining()
      */
     public final double getGunTurnRemaining() {
-        return robot.getGunTurnRemaining();
+        RobotStatus status = robot.status;
+        return status != null ? status.getGunTurnRemaining() : robot.getGunTurnRemaining();
     }
 
     /**
@@ -101,7 +108,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarHeading()
      */
     public final double getHeading() {
-        return robot.getHeading();
+        RobotStatus status = robot.status;
+        return status != null ? status.getHeading() : robot.getHeading();
     }
 
     /**
@@ -116,7 +124,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getGunHeading()
      */
     public final double getRadarHeading() {
-        return robot.getRadarHeading();
+        RobotStatus status = robot.status;
+        return status != null ? status.getRadarHeading() : robot.getRadarHeading();
     }
 
     /**
@@ -133,7 +142,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarTurnRemaining() getRadarTurnRemaining()
      */
     public final double getRadarTurnRemaining() {
-        return robot.getRadarTurnRemaining();
+        RobotStatus status = robot.status;
+        return status != null ? status.getRadarTurnRemaining() : robot.getRadarTurnRemaining();
     }
 
     /**
@@ -150,7 +160,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getRadarTurnRemaining() getRadarTurnRemaining()
      */
     public final double getTurnRemaining() {
-        return robot.getTurnRemaining();
+        RobotStatus status = robot.status;
+        return status != null ? status.getTurnRemaining() : robot.getTurnRemaining();
     }
 
     /**
@@ -221,16 +232,15 @@ public abstract class SimpleRobotBehaviour {
      *              from the robot's energy.
      * @return a {@link Bullet} that contains information about the bullet if it
      *         was actually fired, which can be used for tracking the bullet
-     *         after it has been fired. If the bullet was not fired,
+     *         after it has been fired. The same instance is returned by all
+     *         events concerning this bullet. If the bullet was not fired,
      *         {@code null} is returned.
      * @see Bullet
      * @see #getGunHeat() getGunHeat()
      * @see #getGunCoolingRate() getGunCoolingRate()
      */
     public final Bullet fireBullet(double power) {
-        robocode.Bullet bullet = robot.setFireBullet(power);
-        if (bullet == null) return null;
-        return new Bullet(bullet);
+        return robot.bulletCache.wrap(robot.setFireBullet(power));
     }
 
     /**
@@ -301,7 +311,7 @@ public abstract class SimpleRobotBehaviour {
      * @return the height of the current battlefield measured in pixels.
      */
     public final double getBattleFieldHeight() {
-        return robot.getBattleFieldHeight();
+        return robot.battleFieldHeight;
     }
 
     /**
@@ -310,7 +320,25 @@ public abstract class SimpleRobotBehaviour {
      * @return the width of the current battlefield measured in pixels.
      */
     public final double getBattleFieldWidth() {
-        return robot.getBattleFieldWidth();
+        return robot.battleFieldWidth;
+    }
+
+    /**
+     * Returns the width of the robot measured in pixels.
+     *
+     * @return the width of the robot measured in pixels.
+     */
+    public final double getWidth() {
+        return robot.robotWidth;
+    }
+
+    /**
+     * Returns the height of the robot measured in pixels.
+     *
+     * @return the height of the robot measured in pixels.
+     */
+    public final double getHeight() {
+        return robot.robotHeight;
     }
 
     /**
@@ -319,7 +347,18 @@ public abstract class SimpleRobotBehaviour {
      * @return the robot's current energy.
      */
     public final double getEnergy() {
-        return robot.getEnergy();
+        RobotStatus status = robot.status;
+        return status != null ? status.getEnergy() : robot.getEnergy();
+    }
+
+    /**
+     * Returns how many opponents are left in the current round.
+     *
+     * @return how many opponents are left in the current round.
+     */
+    public final int getOthers() {
+        RobotStatus status = robot.status;
+        return status != null ? status.getOthers() : robot.getOthers();
     }
 
     /**
@@ -334,7 +373,7 @@ public abstract class SimpleRobotBehaviour {
      * @see #fireBullet(double)
      */
     public final double getGunCoolingRate() {
-        return robot.getGunCoolingRate();
+        return robot.gunCoolingRate;
     }
 
     /**
@@ -354,7 +393,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #fireBullet(double)
      */
     public final double getGunHeat() {
-        return robot.getGunHeat();
+        RobotStatus status = robot.status;
+        return status != null ? status.getGunHeat() : robot.getGunHeat();
     }
 
     /**
@@ -368,7 +408,8 @@ public abstract class SimpleRobotBehaviour {
      * @return the game time/turn of the current round.
      */
     public final long getTime() {
-        return robot.getTime();
+        RobotStatus status = robot.status;
+        return status != null ? status.getTime() : robot.getTime();
     }
 
     /**
@@ -379,7 +420,8 @@ public abstract class SimpleRobotBehaviour {
      * @return the velocity of the robot measured in pixels/turn.
      */
     public final double getVelocity() {
-        return robot.getVelocity();
+        RobotStatus status = robot.status;
+        return status != null ? status.getVelocity() : robot.getVelocity();
     }
 
     /**
@@ -400,7 +442,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getY()
      */
     public final double getX() {
-        return robot.getX();
+        RobotStatus status = robot.status;
+        return status != null ? status.getX() : robot.getX();
     }
 
     /**
@@ -411,7 +454,8 @@ public abstract class SimpleRobotBehaviour {
      * @see #getX()
      */
     public final double getY() {
-        return robot.getY();
+        RobotStatus status = robot.status;
+        return status != null ? status.getY() : robot.getY();
     }
 
     /**
@@ -458,192 +502,104 @@ public abstract class SimpleRobotBehaviour {
     }
 
     /**
-     * Returns a vector containing all {@link BulletHitBulletEvent}s currently
-     * in the robot's queue.
+     * Delivers all events that arrived since the last call to the given
+     * visitor and removes them from the robot's queues.
      * <p>
-     * Example:
-     * <pre>
-     *   for (net.zerobone.zerorobo.utils.BulletHitBulletEvent event : getBulletHitBulletEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
-     * </pre>
-     *
-     * @return a vector containing all BulletHitBulletEvents currently in the
-     *         robot's queue
-     * @see BulletHitBulletEvent
-     */
-    public final Vector<BulletHitBulletEvent> getBulletHitBulletEvents() {
-        Vector<BulletHitBulletEvent> res =  Stream.concat(
-                robot
-                        .getBulletHitBulletEvents()
-                        .stream()
-                        .map(BulletHitBulletEvent::new),
-                robot.bulletHitBulletEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.bulletHitBulletEventQueue = new LinkedList<>();
-        return res;
-    }
-
-    /**
-     * Returns a vector containing all {@link BulletHitEvent}s in the
-     * robot's queue.
+     * The events are walked once, in the order of their default robocode
+     * priority, as documented in {@link EventVisitor}. This method should be
+     * called once at the beginning of {@link #execute()}.
      * <p>
      * Example:
      * <pre>
-     *   for (net.zerobone.zerorobo.utils.BulletHitEvent event: getBulletHitEvents()) {
-     *       <i>// do something with the event</i>
+     *   protected void execute() {
+     *       dispatchEvents(this);
+     *       ...
      *   }
      * </pre>
      *
-     * @return a vector containing all BulletHitEvents currently in the robot's
-     *         queue
-     * @see BulletHitEvent
+     * @param visitor the visitor receiving the events
+     * @see EventVisitor
      */
-    public final Vector<BulletHitEvent> getBulletHitEvents() {
-        Vector<BulletHitEvent> res = Stream.concat(
-                robot
-                        .getBulletHitEvents()
-                        .stream()
-                        .map(BulletHitEvent::new),
-                robot.bulletHitEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.bulletHitEventQueue = new LinkedList<>();
-        return res;
-    }
+    public final void dispatchEvents(EventVisitor visitor) {
 
-    /**
-     * Returns a vector containing all {@link BulletMissedEvent}s currently in
-     * the robot's queue.
-     * <p>
-     * Example:
-     * <pre>
-     *   for (net.zerobone.zerorobo.utils.BulletMissedEvent event : getBulletMissedEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
-     * </pre>
-     *
-     * @return a vector containing all BulletMissedEvents currently in the
-     *         robot's queue
-     * @see BulletMissedEvent
-     */
-    public final Vector<BulletMissedEvent> getBulletMissedEvents() {
-        Vector<BulletMissedEvent> res = Stream.concat(
-                robot
-                        .getBulletMissedEvents()
-                        .stream()
-                        .map(BulletMissedEvent::new),
-                robot.bulletMissedEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.bulletMissedEventQueue = new LinkedList<>();
-        return res;
-    }
+        SkippedTurnEvent skippedTurnEvent;
+        while ((skippedTurnEvent = robot.skippedTurnEventQueue.poll()) != null) {
+            visitor.onSkippedTurn(skippedTurnEvent);
+        }
 
-    /**
-     * Returns a vector containing all {@link HitByBulletEvent}s currently in
-     * the robot's queue.
-     * <p>
-     * Example:
-     * <pre>
-     *   for (net.zerobone.zerorobo.utils.HitByBulletEvent event : getHitByBulletEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
-     * </pre>
-     *
-     * @return a vector containing all HitByBulletEvents currently in the
-     *         robot's queue
-     * @see HitByBulletEvent
-     */
-    public final Vector<HitByBulletEvent> getHitByBulletEvents() {
-        Vector<HitByBulletEvent> res = Stream.concat(
-                robot
-                        .getHitByBulletEvents()
-                        .stream()
-                        .map(HitByBulletEvent::new),
-                robot.hitByBulletEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.hitByBulletEventQueue = new LinkedList<>();
-        return res;
-    }
+        RobotDeathEvent robotDeathEvent;
+        while ((robotDeathEvent = robot.robotDeathEventQueue.poll()) != null) {
+            visitor.onRobotDeath(robotDeathEvent);
+        }
+
+        BulletMissedEvent bulletMissedEvent;
+        while ((bulletMissedEvent = robot.bulletMissedEventQueue.poll()) != null) {
+            visitor.onBulletMissed(bulletMissedEvent);
+        }
+
+        BulletHitBulletEvent bulletHitBulletEvent;
+        while ((bulletHitBulletEvent = robot.bulletHitBulletEventQueue.poll()) != null) {
+            visitor.onBulletHitBullet(bulletHitBulletEvent);
+        }
+
+        BulletHitEvent bulletHitEvent;
+        while ((bulletHitEvent = robot.bulletHitEventQueue.poll()) != null) {
+            visitor.onBulletHit(bulletHitEvent);
+        }
+
+        HitRobotEvent hitRobotEvent;
+        while ((hitRobotEvent = robot.hitRobotEventQueue.poll()) != null) {
+            visitor.onHitRobot(hitRobotEvent);
+        }
+
+        HitWallEvent hitWallEvent;
+        while ((hitWallEvent = robot.hitWallEventQueue.poll()) != null) {
+            visitor.onHitWall(hitWallEvent);
+        }
+
+        HitByBulletEvent hitByBulletEvent;
+        while ((hitByBulletEvent = robot.hitByBulletEventQueue.poll()) != null) {
+            visitor.onHitByBullet(hitByBulletEvent);
+        }
+
+        ScannedRobotEvent scannedRobotEvent;
+        while ((scannedRobotEvent = robot.scannedRobotEventQueue.poll()) != null) {
+            visitor.onScanned(scannedRobotEvent);
+        }
 
-    /**
-     * Returns a vector containing all {@link HitRobotEvent}s currently in the
-     * robot's queue.
-     * <p>
-     * Example:
-     * <pre>
-     *   for (net.zerobone.zerorobo.utils.HitRobotEvent event : getHitRobotEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
-     * </pre>
-     *
-     * @return a vector containing all HitRobotEvents currently in the robot's
-     *         queue
-     * @see HitRobotEvent
-     */
-    public final Vector<HitRobotEvent> getHitRobotEvents() {
-        Vector<HitRobotEvent> res = Stream.concat(
-                robot
-                        .getHitRobotEvents()
-                        .stream()
-                        .map(HitRobotEvent::new),
-                robot.hitRobotEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.hitRobotEventQueue = new LinkedList<>();
-        return res;
     }
 
     /**
-     * Returns a vector containing all {@link HitWallEvent}s currently in the
-     * robot's queue.
+     * Returns the tick budget of the robot, which measures how long the
+     * behaviour takes to compute a tick.
      * <p>
-     * Example:
-     * <pre>
-     *   for (net.zerobone.zerorobo.utils.HitWallEvent event : getHitWallEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
-     * </pre>
+     * Expensive subsystems should check {@link TickBudget#getMode()} and switch
+     * to cheaper variants when the robot is about to skip turns.
      *
-     * @return a vector containing all HitWallEvents currently in the robot's
-     *         queue
-     * @see HitWallEvent
+     * @return the tick budget of the robot
+     * @see TickBudget
      */
-    public final Vector<HitWallEvent> getHitWallEvents() {
-        Vector<HitWallEvent> res = Stream.concat(
-                robot
-                        .getHitWallEvents()
-                        .stream()
-                        .map(HitWallEvent::new),
-                robot.hitWallEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.hitWallEventQueue = new LinkedList<>();
-        return res;
+    public final TickBudget getTickBudget() {
+        return robot.tickBudget;
     }
 
     /**
-     * Returns a vector containing all {@link ScannedRobotEvent}s currently in
-     * the robot's queue.
+     * Returns the profiler collecting the latencies of the phases of a tick.
      * <p>
      * Example:
      * <pre>
-     *   for (net.zerobone.zerorobo.utils.ScannedRobotEvent event : getScannedRobotEvents()) {
-     *       <i>// do something with the event</i>
-     *   }
+     *   private final int gunPhase = getProfiler().register("gun");
+     *   ...
+     *   getProfiler().begin(gunPhase);
+     *   aim();
+     *   getProfiler().end(gunPhase);
      * </pre>
      *
-     * @return a vector containing all ScannedRobotEvents currently in the
-     *         robot's queue
-     * @see ScannedRobotEvent
-     */
-    public final Vector<ScannedRobotEvent> getScannedRobotEvents() {
-        Vector<ScannedRobotEvent> res = Stream.concat(
-                robot
-                        .getScannedRobotEvents()
-                        .stream()
-                        .map(ScannedRobotEvent::new),
-                robot.scannedRobotEventQueue.stream())
-                .collect(Collectors.toCollection(Vector::new));
-        robot.scannedRobotEventQueue = new LinkedList<>();
-        return res;
+     * @return the profiler of the robot
+     * @see TickProfiler
+     */
+    public final TickProfiler getProfiler() {
+        return SimpleRobot.profiler;
     }
 
     /**
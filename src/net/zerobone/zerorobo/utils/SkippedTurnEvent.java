@@ -0,0 +1,38 @@
+package net.zerobone.zerorobo.utils;
+
+/**
+ * A net.zerobone.zerorobo.utils.SkippedTurnEvent is sent to
+ * {@link EventVisitor#onSkippedTurn(SkippedTurnEvent)} when your robot has
+ * skipped a turn, meaning that it took longer than robocode allows to
+ * compute a tick and robocode did not receive its actions in time.
+ *
+ * @author Mathew A. Nelson (original)
+ * @author Flemming N. Larsen (contributor)
+ */
+public final class SkippedTurnEvent {
+    private robocode.SkippedTurnEvent ev;
+
+    /**
+     * Called by the robot to create a new pooled {@link SkippedTurnEvent} object.
+     */
+    SkippedTurnEvent() {}
+
+    /**
+     * Called by the robot to reuse this object for a new event.
+     *
+     * @param ev the internal Robocode event
+     */
+    void set(robocode.SkippedTurnEvent ev) {
+        this.ev = ev;
+    }
+
+    /**
+     * Returns the turn that was skipped.
+     *
+     * @return the turn that was skipped
+     */
+    public long getSkippedTurn() {
+        return ev.getSkippedTurn();
+    }
+
+}
@@ -0,0 +1,275 @@
+package net.zerobone.zerorobo.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures how long the behaviour of a {@link SimpleRobot} takes per tick and
+ * decides how much work it can afford.
+ * <p>
+ * Robocode skips a turn of a robot that takes longer than the CPU constant of
+ * the host machine to compute a tick. This constant is not visible to the
+ * robot, so the budget starts at {@link #DEFAULT_BUDGET_NANOS} and is lowered
+ * when a turn is skipped after one of our own ticks came close to it. Skips
+ * can also be caused by the garbage collector or the load of the host, so a
+ * lowered budget slowly recovers towards the default once no more turns are
+ * skipped.
+ * <p>
+ * The {@link Mode} tells the behaviour which expensive subsystems to switch to
+ * cheaper variants. It is derived from the moving average of the tick
+ * duration relative to the budget, and a recently skipped turn keeps the
+ * robot at least in {@link Mode#REDUCED}.
+ */
+public final class TickBudget {
+
+    /**
+     * Describes how much work the behaviour may do in the current tick.
+     */
+    public enum Mode {
+
+        /**
+         * The tick is well within the budget, all subsystems may run at full
+         * precision.
+         */
+        FULL,
+
+        /**
+         * The tick is getting close to the budget, expensive computations
+         * should use cheaper approximations.
+         */
+        REDUCED,
+
+        /**
+         * The tick is about to exceed the budget, only what is necessary to
+         * keep the robot alive should run.
+         */
+        MINIMAL
+
+    }
+
+    /**
+     * The budget assumed until the first skipped turn gives a better estimate.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 5_000_000;
+
+    // the budget is never lowered below this value, so that a single hiccup
+    // of the host cannot put the robot into minimal mode for the whole round
+    private static final long MIN_BUDGET_NANOS = 500_000;
+
+    private static final double REDUCED_THRESHOLD = .5;
+    private static final double MINIMAL_THRESHOLD = .8;
+
+    // weight of the latest tick in the moving average
+    private static final double SMOOTHING = .1;
+
+    // amount of ticks a skipped turn keeps the robot in reduced mode
+    private static final long SKIPPED_TURN_COOLDOWN = 30;
+
+    // a skipped turn only lowers the budget if one of the last ticks took at
+    // least this fraction of it, otherwise our own work did not cause it
+    private static final double SHRINK_THRESHOLD = .5;
+
+    // after this many ticks without a skipped turn, the budget moves back
+    // towards the default by this fraction of the difference per tick
+    private static final long RECOVERY_TICKS = 100;
+    private static final double RECOVERY_RATE = .01;
+
+    private final ThreadMXBean threadBean;
+
+    // learned from skipped turns, static to survive the rounds (see
+    // SimpleRobot)
+    private static long budgetNanos = DEFAULT_BUDGET_NANOS;
+
+    private long tickStartWallNanos;
+    private long tickStartCpuNanos;
+
+    private long lastWallNanos = 0;
+    private long previousWallNanos = 0;
+    private long lastCpuNanos = 0;
+    private long maxWallNanos = 0;
+
+    private double averageWallNanos = 0;
+
+    private int skippedTurns = 0;
+    private long lastSkippedTurn = -SKIPPED_TURN_COOLDOWN;
+
+    private Mode mode = Mode.FULL;
+
+    TickBudget() {
+        threadBean = createThreadBean();
+    }
+
+    private static ThreadMXBean createThreadBean() {
+
+        try {
+
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+            if (bean.isCurrentThreadCpuTimeSupported()) {
+                return bean;
+            }
+
+        }
+        catch (SecurityException | UnsupportedOperationException ignored) {
+            // the robocode sandbox may deny access to the management beans,
+            // in this case only the wall-clock time is measured
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Called by the robot right before the behaviour computes a tick.
+     */
+    void startTick() {
+        tickStartWallNanos = System.nanoTime();
+        tickStartCpuNanos = threadBean == null ? 0 : threadBean.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Called by the robot right after the behaviour has computed a tick.
+     *
+     * @param time the game time of the tick
+     */
+    void endTick(long time) {
+
+        previousWallNanos = lastWallNanos;
+        lastWallNanos = System.nanoTime() - tickStartWallNanos;
+        lastCpuNanos = threadBean == null ? 0 : threadBean.getCurrentThreadCpuTime() - tickStartCpuNanos;
+
+        if (lastWallNanos > maxWallNanos) {
+            maxWallNanos = lastWallNanos;
+        }
+
+        averageWallNanos += (lastWallNanos - averageWallNanos) * SMOOTHING;
+
+        if (time - lastSkippedTurn >= RECOVERY_TICKS && budgetNanos < DEFAULT_BUDGET_NANOS) {
+            budgetNanos += (long)Math.ceil((DEFAULT_BUDGET_NANOS - budgetNanos) * RECOVERY_RATE);
+        }
+
+        // a single long tick counts half, so the mode reacts to spikes right
+        // away without the average having to catch up first
+        double load = Math.max(averageWallNanos, lastWallNanos * .5) / budgetNanos;
+
+        if (load >= MINIMAL_THRESHOLD) {
+            mode = Mode.MINIMAL;
+        }
+        else if (load >= REDUCED_THRESHOLD || time - lastSkippedTurn < SKIPPED_TURN_COOLDOWN) {
+            mode = Mode.REDUCED;
+        }
+        else {
+            mode = Mode.FULL;
+        }
+
+    }
+
+    /**
+     * Called by the robot when robocode reports a skipped turn.
+     *
+     * @param skippedTurn the turn that was skipped
+     */
+    void onSkippedTurn(long skippedTurn) {
+
+        skippedTurns++;
+        lastSkippedTurn = skippedTurn;
+
+        // only the behaviour is measured, not the event handling, and the
+        // skip may be reported a tick late, so look at the last two ticks
+        long recentWallNanos = Math.max(lastWallNanos, previousWallNanos);
+
+        if (recentWallNanos >= budgetNanos * SHRINK_THRESHOLD && recentWallNanos < budgetNanos) {
+            budgetNanos = Math.max(recentWallNanos, MIN_BUDGET_NANOS);
+        }
+
+        if (mode == Mode.FULL) {
+            mode = Mode.REDUCED;
+        }
+
+    }
+
+    /**
+     * Returns how much work the behaviour may do in the current tick.
+     *
+     * @return the current mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Checks whether expensive subsystems may run at full precision.
+     *
+     * @return {@code true} if the robot is in {@link Mode#FULL}
+     */
+    public boolean isFull() {
+        return mode == Mode.FULL;
+    }
+
+    /**
+     * Returns the currently estimated time available per tick.
+     *
+     * @return the budget per tick in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Returns the wall-clock time the behaviour took to compute the last tick.
+     *
+     * @return the wall-clock time of the last tick in nanoseconds
+     */
+    public long getLastWallNanos() {
+        return lastWallNanos;
+    }
+
+    /**
+     * Returns the CPU time the behaviour took to compute the last tick.
+     *
+     * @return the CPU time of the last tick in nanoseconds or 0 if the CPU
+     *         time cannot be measured in this environment
+     */
+    public long getLastCpuNanos() {
+        return lastCpuNanos;
+    }
+
+    /**
+     * Returns the longest wall-clock time the behaviour took for a tick in
+     * this round.
+     *
+     * @return the longest tick of this round in nanoseconds
+     */
+    public long getMaxWallNanos() {
+        return maxWallNanos;
+    }
+
+    /**
+     * Returns the exponential moving average of the wall-clock time per tick.
+     *
+     * @return the average tick duration in nanoseconds
+     */
+    public double getAverageWallNanos() {
+        return averageWallNanos;
+    }
+
+    /**
+     * Returns the amount of turns skipped in this round.
+     *
+     * @return the amount of skipped turns
+     */
+    public int getSkippedTurns() {
+        return skippedTurns;
+    }
+
+    /**
+     * Checks whether the CPU time of a tick can be measured in this
+     * environment.
+     *
+     * @return {@code true} if {@link #getLastCpuNanos()} is available
+     */
+    public boolean isCpuTimeSupported() {
+        return threadBean != null;
+    }
+
+}
@@ -0,0 +1,140 @@
+package net.zerobone.zerorobo.utils;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Records how long the phases of a tick take.
+ * <p>
+ * A behaviour registers its phases once with {@link #register(String)} and
+ * wraps every phase in {@link #begin(int)} and {@link #end(int)}. The
+ * latencies are collected in one {@link LatencyHistogram} per phase over the
+ * whole battle, and {@link SimpleRobot} writes the 50th and 99th percentile
+ * and the maximum of every phase to {@link #FILE_NAME} in the robot's data
+ * directory at the end of each round.
+ * <p>
+ * Phases may be nested, but a phase must not be begun again before it has
+ * ended.
+ */
+public final class TickProfiler {
+
+    /**
+     * The name of the file in the robot's data directory the statistics are
+     * written to.
+     */
+    public static final String FILE_NAME = "profile.txt";
+
+    /**
+     * The name of the phase covering the whole tick, which is recorded by the
+     * robot itself.
+     */
+    public static final String TICK_PHASE = "tick";
+
+    private static final int INITIAL_PHASES = 8;
+
+    private String[] names = new String[INITIAL_PHASES];
+
+    private LatencyHistogram[] histograms = new LatencyHistogram[INITIAL_PHASES];
+
+    private long[] startNanos = new long[INITIAL_PHASES];
+
+    private int phases = 0;
+
+    /**
+     * Registers a phase with the given name. Registering a name again returns
+     * the id of the existing phase, so behaviours can register their phases
+     * every round.
+     *
+     * @param name the name of the phase, must not contain whitespace
+     * @return the id of the phase used with {@link #begin(int)} and
+     *         {@link #end(int)}
+     */
+    public int register(String name) {
+
+        for (int i = 0; i < phases; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+
+        if (phases == names.length) {
+            names = Arrays.copyOf(names, phases << 1);
+            histograms = Arrays.copyOf(histograms, phases << 1);
+            startNanos = Arrays.copyOf(startNanos, phases << 1);
+        }
+
+        names[phases] = name;
+        histograms[phases] = new LatencyHistogram();
+
+        return phases++;
+
+    }
+
+    /**
+     * Marks the beginning of the given phase.
+     *
+     * @param phase the id of the phase
+     */
+    public void begin(int phase) {
+        startNanos[phase] = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the given phase and records its duration.
+     *
+     * @param phase the id of the phase
+     */
+    public void end(int phase) {
+        histograms[phase].record(System.nanoTime() - startNanos[phase]);
+    }
+
+    /**
+     * Records a duration measured elsewhere for the given phase.
+     *
+     * @param phase the id of the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(int phase, long nanos) {
+        histograms[phase].record(nanos);
+    }
+
+    /**
+     * Returns the histogram of the given phase.
+     *
+     * @param phase the id of the phase
+     * @return the histogram of the phase
+     */
+    public LatencyHistogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    /**
+     * Writes one line per phase with its name, the amount of samples and the
+     * 50th percentile, 99th percentile and maximum in microseconds.
+     *
+     * @param out the stream to write to
+     */
+    void write(PrintStream out) {
+
+        out.println("# phase count p50_us p99_us max_us");
+
+        for (int i = 0; i < phases; i++) {
+
+            LatencyHistogram histogram = histograms[i];
+
+            out.printf(
+                Locale.ROOT,
+                "%s %d %.1f %.1f %.1f%n",
+                names[i],
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.,
+                histogram.getValueAtPercentile(99) / 1000.,
+                histogram.getMax() / 1000.
+            );
+
+        }
+
+    }
+
+}
@@ -15,6 +15,17 @@ public class Utils {
     private final static double PI_OVER_TWO = PI / 2;
     static final double NEAR_DELTA = .00001;
 
+    // resolution of the fast sine table, the table covers one full turn
+    private final static int SIN_TABLE_SIZE = 4096;
+    private final static double SIN_TABLE_STEPS_PER_DEGREE = SIN_TABLE_SIZE / 360.;
+    private final static double[] SIN_TABLE = new double[SIN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= SIN_TABLE_SIZE; i++) {
+            SIN_TABLE[i] = Math.sin(i * TWO_PI / SIN_TABLE_SIZE);
+        }
+    }
+
     // Hide the default constructor as this class only provides static method
     private Utils() {}
 
@@ -293,4 +304,95 @@ public class Utils {
         return Math.signum(d);
     }
 
+    /**
+     * Returns an approximation of the trigonometric sine of an angle in
+     * degrees.
+     * <p>
+     * The value is linearly interpolated from a table with 4096 entries per
+     * turn. The absolute error is below 3e-7, which corresponds to an angular
+     * error below 2e-5 degrees. Use {@link #sin(double)} where the exact
+     * result is needed.
+     *
+     * @param val an angle, in degrees, must be finite.
+     * @return the approximated sine of the argument.
+     */
+    public static double fastSin(double val) {
+
+        double index = (val % 360) * SIN_TABLE_STEPS_PER_DEGREE;
+        if (index < 0) {
+            index += SIN_TABLE_SIZE;
+        }
+
+        int i = (int)index;
+        double fraction = index - i;
+
+        // tiny negative angles round up to a whole turn
+        if (i >= SIN_TABLE_SIZE) {
+            i -= SIN_TABLE_SIZE;
+        }
+
+        return SIN_TABLE[i] + (SIN_TABLE[i + 1] - SIN_TABLE[i]) * fraction;
+
+    }
+
+    /**
+     * Returns an approximation of the trigonometric cosine of an angle in
+     * degrees.
+     * <p>
+     * The error bounds are the ones of {@link #fastSin(double)}. Use
+     * {@link #cos(double)} where the exact result is needed.
+     *
+     * @param val an angle, in degrees, must be finite.
+     * @return the approximated cosine of the argument.
+     */
+    public static double fastCos(double val) {
+        return fastSin(val + 90);
+    }
+
+    /**
+     * Returns an approximation of the angle <i>theta</i> from the conversion
+     * of rectangular coordinates ({@code x},&nbsp;{@code y}) to polar
+     * coordinates (r,&nbsp;<i>theta</i>) in degrees, in the range of -180 to
+     * 180.
+     * <p>
+     * The arc tangent is evaluated with a polynomial of degree 9 on the octant
+     * [0,&nbsp;1] (Abramowitz and Stegun 4.4.49) and mapped to the other
+     * octants by symmetry. The maximum error is below 7e-4 degrees. If both
+     * arguments are zero the result is 0. Use {@link #atan2(double, double)}
+     * where the exact result or the special cases for infinite arguments are
+     * needed.
+     *
+     * @param   y   the ordinate coordinate
+     * @param   x   the abscissa coordinate
+     * @return  the approximated <i>theta</i> component of the point
+     *          (<i>r</i>,&nbsp;<i>theta</i>) in degrees.
+     */
+    public static double fastAtan2(double y, double x) {
+
+        double absY = Math.abs(y);
+        double absX = Math.abs(x);
+
+        if (absX == 0 && absY == 0) {
+            return 0;
+        }
+
+        boolean swapped = absY > absX;
+
+        double z = swapped ? absX / absY : absY / absX;
+        double z2 = z * z;
+
+        double angle = z * (.9998660 + z2 * (-.3302995 + z2 * (.1801410 + z2 * (-.0851330 + z2 * .0208351))));
+
+        if (swapped) {
+            angle = PI_OVER_TWO - angle;
+        }
+
+        if (x < 0) {
+            angle = PI - angle;
+        }
+
+        return Math.toDegrees(y < 0 ? -angle : angle);
+
+    }
+
 }
\ No newline at end of file